@@ -0,0 +1,65 @@
+package org.nano.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Blake2b hashes per second on a single thread, for the message
+ * and digest sizes Nano uses: a 32 byte key for address checksums, a 40
+ * byte nonce and root for proof of work and a state block for block hashes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+@State(Scope.Thread)
+public class Blake2bBenchmark {
+
+    @Param({"32", "40", "176"})
+    int inputLength;
+
+    @Param({"5", "8", "32"})
+    int digestLength;
+
+    private Blake2b blake2b;
+    private byte[] input;
+    private byte[] out;
+
+    @Setup
+    public void setUp() {
+        blake2b = new Blake2b(digestLength);
+        input = new byte[inputLength];
+        for (int i = 0; i < inputLength; i++) {
+            input[i] = (byte) i;
+        }
+        out = new byte[digestLength];
+    }
+
+    @Benchmark
+    public byte[] hash() {
+        blake2b.update(input, 0, input.length);
+        blake2b.digest(out, 0);
+        return out;
+    }
+
+    @Benchmark
+    public long hashToLong() {
+        input[0]++;
+        blake2b.update(input, 0, input.length);
+        return blake2b.digestLong();
+    }
+}
@@ -0,0 +1,75 @@
+package org.nano.client;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Scanner;
+
+/**
+ * Loads the JSON fixtures from src/test/resources and scales them up to
+ * realistic response sizes for benchmarking.
+ */
+final class Fixtures {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    private Fixtures() {
+    }
+
+    static String load(String name) {
+        String filename = "json/" + name + ".json";
+        InputStream stream = Fixtures.class.getClassLoader().getResourceAsStream(filename);
+        if (stream == null) {
+            throw new IllegalArgumentException("No fixture named " + name);
+        }
+        return new Scanner(stream, "UTF-8").useDelimiter("\\A").next();
+    }
+
+    /**
+     * Loads a fixture and grows every array and map in the top level object
+     * to the given number of entries. Map keys are made unique by appending
+     * the entry's index.
+     */
+    static byte[] scaled(String name, int size) {
+        JsonObject root = new JsonParser().parse(load(name)).getAsJsonObject();
+        for (Map.Entry<String, JsonElement> member : root.entrySet()) {
+            JsonElement value = member.getValue();
+            if (value.isJsonArray()) {
+                member.setValue(scale(value.getAsJsonArray(), size));
+            } else if (value.isJsonObject()) {
+                member.setValue(scale(value.getAsJsonObject(), size));
+            }
+        }
+        return root.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static ResponseBody body(byte[] json) {
+        return ResponseBody.create(JSON, json);
+    }
+
+    private static JsonArray scale(JsonArray array, int size) {
+        JsonArray output = new JsonArray();
+        for (int i = 0; i < size; i++) {
+            output.add(array.get(i % array.size()));
+        }
+        return output;
+    }
+
+    private static JsonObject scale(JsonObject object, int size) {
+        Object[] entries = object.entrySet().toArray();
+        JsonObject output = new JsonObject();
+        for (int i = 0; i < size; i++) {
+            @SuppressWarnings("unchecked")
+            Map.Entry<String, JsonElement> entry = (Map.Entry<String, JsonElement>) entries[i % entries.length];
+            output.add(entry.getKey() + i, entry.getValue());
+        }
+        return output;
+    }
+}
@@ -0,0 +1,76 @@
+package org.nano.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building a {@link Request} and encoding it to JSON.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestEncodingBenchmark {
+
+    private static final String ACCOUNT = "xrb_3t6k35gi95xu6tergt6p69ck76ogmitsa8mnijtpxm9fkcm736xtoncuohr3";
+
+    @Param({"10", "1000", "100000"})
+    int accounts;
+
+    private final NanoClient client = new NanoClient((HttpClient) null);
+    private List<String> list;
+
+    @Setup
+    public void setUp() {
+        list = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            list.add(ACCOUNT);
+        }
+    }
+
+    @Benchmark
+    public String accountBalance() {
+        Request request = Request.action("account_balance")
+            .param("account", ACCOUNT)
+            .build();
+
+        return client.encode(request);
+    }
+
+    @Benchmark
+    public String accountInformation() {
+        Request request = Request.action("account_info")
+            .param("account", ACCOUNT)
+            .param("representative", true)
+            .param("weight", true)
+            .param("pending", true)
+            .build();
+
+        return client.encode(request);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String accountsBalances() {
+        Request request = Request.action("accounts_balances")
+            .param("accounts", list)
+            .build();
+
+        return client.encode(request);
+    }
+}
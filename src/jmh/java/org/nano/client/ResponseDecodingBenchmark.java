@@ -0,0 +1,125 @@
+package org.nano.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures decoding of each response type through the same path the client
+ * uses, from a response body into the response object.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseDecodingBenchmark {
+
+    private static final Map<String, Class<? extends BaseResponse>> TYPES = new HashMap<>();
+
+    static {
+        TYPES.put("account_balance", Balance.class);
+        TYPES.put("account_balances", Balances.class);
+        TYPES.put("wallet_balances", Balances.class);
+        TYPES.put("account_block_count", AccountBlockCount.class);
+        TYPES.put("account_create", AccountCreate.class);
+        TYPES.put("account_get", AccountGet.class);
+        TYPES.put("account_history", AccountHistory.class);
+        TYPES.put("account_info", AccountInformation.class);
+        TYPES.put("account_key", AccountPublicKey.class);
+        TYPES.put("account_list", AccountList.class);
+        TYPES.put("account_move", AccountMove.class);
+        TYPES.put("account_remove", AccountRemove.class);
+        TYPES.put("account_representative", AccountRepresentative.class);
+        TYPES.put("account_representative_set", AccountRepresentativeSet.class);
+        TYPES.put("account_weight", AccountWeight.class);
+        TYPES.put("accounts_create", AccountsCreate.class);
+        TYPES.put("accounts_frontiers", AccountsFrontiers.class);
+        TYPES.put("accounts_pending", AccountsPending.class);
+        TYPES.put("block_account", BlockAccount.class);
+        TYPES.put("block_count", BlockCount.class);
+        TYPES.put("block_count_type", BlockCountType.class);
+        TYPES.put("chain", Chain.class);
+        TYPES.put("existence_true", ExistenceResponse.class);
+        TYPES.put("receive", Receive.class);
+        TYPES.put("receive_minimum", ReceiveMinimum.class);
+        TYPES.put("representatives", Representatives.class);
+        TYPES.put("send", Send.class);
+        TYPES.put("stop", VoidResponse.class);
+        TYPES.put("version", NodeVersion.class);
+        TYPES.put("wallet_representative", WalletRepresentative.class);
+    }
+
+    /**
+     * Responses whose size grows with the request, scaled up to realistic sizes.
+     */
+    @State(Scope.Benchmark)
+    public static class Sized {
+
+        @Param({"account_balances", "account_history", "accounts_frontiers", "accounts_pending",
+            "representatives", "chain", "account_list", "accounts_create"})
+        String fixture;
+
+        @Param({"10", "1000", "100000"})
+        int size;
+
+        Class<? extends BaseResponse> type;
+        byte[] json;
+
+        @Setup
+        public void setUp() {
+            type = TYPES.get(fixture);
+            json = Fixtures.scaled(fixture, size);
+        }
+    }
+
+    /**
+     * Responses with a fixed shape.
+     */
+    @State(Scope.Benchmark)
+    public static class Singles {
+
+        @Param({"account_balance", "account_block_count", "account_create", "account_get", "account_info",
+            "account_key", "account_move", "account_remove", "account_representative",
+            "account_representative_set", "account_weight", "block_account", "block_count",
+            "block_count_type", "existence_true", "receive", "receive_minimum", "send",
+            "stop", "version", "wallet_representative"})
+        String fixture;
+
+        Class<? extends BaseResponse> type;
+        byte[] json;
+
+        @Setup
+        public void setUp() {
+            type = TYPES.get(fixture);
+            json = Fixtures.load(fixture).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private final NanoClient client = new NanoClient((HttpClient) null);
+
+    @Benchmark
+    public BaseResponse decodeCollection(Sized state) {
+        return client.decode(Fixtures.body(state.json), state.type);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public BaseResponse decodeSingle(Singles state) {
+        return client.decode(Fixtures.body(state.json), state.type);
+    }
+}
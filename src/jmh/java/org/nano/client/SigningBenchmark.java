@@ -0,0 +1,50 @@
+package org.nano.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building, hashing and signing a state block on one thread.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SigningBenchmark {
+
+    private static final String ACCOUNT = "xrb_1e5aqegc1jb7qe964u4adzmcezyo6o146zb8hm6dft8tkp79za3sxwjym5rx";
+
+    private final Signer signer = new Signer("781186FB9EF17DB6E3D1056550D9FAE5D5BBADA6A6BC370E4CBB938B1DC71DA3");
+    private final StateBlock block = build();
+
+    @Benchmark
+    public StateBlock buildBlock() {
+        return build();
+    }
+
+    @Benchmark
+    public StateBlock signBlock() {
+        return signer.sign(block);
+    }
+
+    private static StateBlock build() {
+        return StateBlock.builder()
+            .account(ACCOUNT)
+            .previous("FC5A7FB777110A858052468D448B2DF22B648943C097C0608D1E2341007438B0")
+            .representative(ACCOUNT)
+            .balance("5000000000000000000000000000001")
+            .link("B2EC73C1F503F47E051AD72ECB512C63BA8E1A0ACC2CEE4EA9A22FE1CBDB693F")
+            .build();
+    }
+}
@@ -4,6 +4,13 @@ public class AccountGet extends BaseResponse {
 
     private String account;
 
+    AccountGet() {
+    }
+
+    AccountGet(String account) {
+        this.account = account;
+    }
+
     public String getAccount() {
         return account;
     }
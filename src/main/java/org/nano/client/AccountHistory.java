@@ -5,8 +5,17 @@ import java.util.List;
 public class AccountHistory extends BaseResponse {
 
     private List<History> history;
+    private String previous;
 
     public List<History> getHistory() {
         return history;
     }
+
+    /**
+     * @return the hash to continue the history from with the head parameter,
+     * or null if the history is complete or the node does not report it.
+     */
+    public String getPrevious() {
+        return previous;
+    }
 }
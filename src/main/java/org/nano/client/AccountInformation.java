@@ -11,6 +11,9 @@ public class AccountInformation extends BaseResponse {
     private String representative;
     private String weight;
     private String pending;
+    private transient Raw balanceRaw;
+    private transient Raw weightRaw;
+    private transient Raw pendingRaw;
 
     public String getFrontier() {
         return frontier;
@@ -28,6 +31,13 @@ public class AccountInformation extends BaseResponse {
         return balance;
     }
 
+    /**
+     * @return the balance as a {@link Raw} amount, parsed on first use.
+     */
+    public Raw getBalanceRaw() {
+        return balanceRaw = Raw.parseIfAbsent(balanceRaw, balance);
+    }
+
     public String getModifiedTimestamp() {
         return modifiedTimestamp;
     }
@@ -44,7 +54,21 @@ public class AccountInformation extends BaseResponse {
         return weight;
     }
 
+    /**
+     * @return the weight as a {@link Raw} amount, parsed on first use.
+     */
+    public Raw getWeightRaw() {
+        return weightRaw = Raw.parseIfAbsent(weightRaw, weight);
+    }
+
     public String getPending() {
         return pending;
     }
+
+    /**
+     * @return the pending as a {@link Raw} amount, parsed on first use.
+     */
+    public Raw getPendingRaw() {
+        return pendingRaw = Raw.parseIfAbsent(pendingRaw, pending);
+    }
 }
@@ -4,6 +4,13 @@ public class AccountPublicKey extends BaseResponse {
 
     private String key;
 
+    AccountPublicKey() {
+    }
+
+    AccountPublicKey(String key) {
+        this.key = key;
+    }
+
     public String getKey() {
         return key;
     }
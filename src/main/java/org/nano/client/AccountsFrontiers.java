@@ -1,6 +1,7 @@
 package org.nano.client;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -10,9 +11,25 @@ public class AccountsFrontiers extends BaseResponse {
 
     public List<AccountFrontier> getFrontiers() {
         List<AccountFrontier> output = new ArrayList<>();
+        if (frontiers == null) {
+            return output;
+        }
         for (String address : frontiers.keySet()) {
             output.add(new AccountFrontier(address, frontiers.get(address)));
         }
         return output;
     }
+
+    /**
+     * Adds the entries of the response to another chunk of the same request.
+     */
+    void merge(AccountsFrontiers other) {
+        if (other.frontiers == null) {
+            return;
+        }
+        if (frontiers == null) {
+            frontiers = new LinkedHashMap<>();
+        }
+        frontiers.putAll(other.frontiers);
+    }
 }
@@ -1,6 +1,7 @@
 package org.nano.client;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -15,4 +16,17 @@ public class AccountsPending extends BaseResponse {
         }
         return output;
     }
+
+    /**
+     * Adds the entries of the response to another chunk of the same request.
+     */
+    void merge(AccountsPending other) {
+        if (other.blocks == null) {
+            return;
+        }
+        if (blocks == null) {
+            blocks = new LinkedHashMap<>();
+        }
+        blocks.putAll(other.blocks);
+    }
 }
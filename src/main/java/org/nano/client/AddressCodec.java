@@ -0,0 +1,247 @@
+package org.nano.client;
+
+import java.util.Arrays;
+
+/**
+ * Converts between 32 byte public keys and account addresses without
+ * contacting a node.
+ * <p>
+ * An address is the xrb_ prefix followed by the key in 52 base32 characters
+ * and a 5 byte Blake2b checksum of the key in 8 more. Addresses with the
+ * nano_ prefix are also accepted when decoding.
+ * <p>
+ * The bulk methods reuse a single set of buffers for every element, so the
+ * only allocation per address is the resulting string.
+ */
+public final class AddressCodec {
+
+    static final int PUBLIC_KEY_LENGTH = 32;
+
+    private static final String PREFIX = "xrb_";
+    private static final String NANO_PREFIX = "nano_";
+    private static final char[] ALPHABET = "13456789abcdefghijkmnopqrstuwxyz".toCharArray();
+    private static final int[] VALUES = new int[128];
+    private static final int KEY_CHARS = 52;
+    private static final int CHECKSUM_LENGTH = 5;
+    private static final int CHECKSUM_CHARS = 8;
+    private static final int ADDRESS_LENGTH = PREFIX.length() + KEY_CHARS + CHECKSUM_CHARS;
+
+    private static final ThreadLocal<AddressCodec> CODEC = ThreadLocal.withInitial(AddressCodec::new);
+
+    static {
+        Arrays.fill(VALUES, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = i;
+        }
+    }
+
+    private final Blake2b blake2b = new Blake2b(CHECKSUM_LENGTH);
+    private final char[] chars = new char[ADDRESS_LENGTH];
+    private final byte[] key = new byte[PUBLIC_KEY_LENGTH];
+    private final byte[] checksum = new byte[CHECKSUM_LENGTH];
+
+    private AddressCodec() {
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+    }
+
+    /**
+     * @param publicKey the public key as 64 hexadecimal digits.
+     * @return the account address for the key.
+     * @throws IllegalArgumentException if the key is not valid hexadecimal.
+     */
+    public static String encode(String publicKey) {
+        AddressCodec codec = CODEC.get();
+        if (!Hex.decode(publicKey, codec.key, 0, PUBLIC_KEY_LENGTH)) {
+            throw new IllegalArgumentException("Invalid public key: " + publicKey);
+        }
+        return codec.encode(codec.key, 0);
+    }
+
+    /**
+     * @param publicKey the 32 byte public key.
+     * @return the account address for the key.
+     */
+    public static String encode(byte[] publicKey) {
+        if (publicKey.length != PUBLIC_KEY_LENGTH) {
+            throw new IllegalArgumentException("Public key must be " + PUBLIC_KEY_LENGTH + " bytes");
+        }
+        return CODEC.get().encode(publicKey, 0);
+    }
+
+    /**
+     * @param account the account address.
+     * @return the public key as 64 upper case hexadecimal digits.
+     * @throws IllegalArgumentException if the address is malformed or its checksum does not match.
+     */
+    public static String decode(String account) {
+        AddressCodec codec = CODEC.get();
+        if (!codec.decode(account, codec.key, 0)) {
+            throw new IllegalArgumentException("Invalid account: " + account);
+        }
+        return Hex.encode(codec.key);
+    }
+
+    /**
+     * @param account the account address.
+     * @return whether the address is well formed and its checksum matches.
+     */
+    public static boolean isValid(String account) {
+        AddressCodec codec = CODEC.get();
+        return codec.decode(account, codec.key, 0);
+    }
+
+    /**
+     * Encodes every key in publicKeys into the same position of accounts.
+     *
+     * @param publicKeys keys as hexadecimal digits.
+     * @param accounts   receives the addresses, at least as long as publicKeys.
+     * @throws IllegalArgumentException if any key is not valid hexadecimal.
+     */
+    public static void encode(String[] publicKeys, String[] accounts) {
+        AddressCodec codec = CODEC.get();
+        for (int i = 0; i < publicKeys.length; i++) {
+            if (!Hex.decode(publicKeys[i], codec.key, 0, PUBLIC_KEY_LENGTH)) {
+                throw new IllegalArgumentException("Invalid public key at index " + i + ": " + publicKeys[i]);
+            }
+            accounts[i] = codec.encode(codec.key, 0);
+        }
+    }
+
+    /**
+     * Encodes keys packed back to back, 32 bytes each, into accounts.
+     *
+     * @param publicKeys the packed keys.
+     * @param accounts   receives one address per key.
+     */
+    public static void encode(byte[] publicKeys, String[] accounts) {
+        if (publicKeys.length % PUBLIC_KEY_LENGTH != 0) {
+            throw new IllegalArgumentException("Packed keys must be a multiple of " + PUBLIC_KEY_LENGTH + " bytes");
+        }
+        AddressCodec codec = CODEC.get();
+        for (int i = 0, offset = 0; offset < publicKeys.length; i++, offset += PUBLIC_KEY_LENGTH) {
+            accounts[i] = codec.encode(publicKeys, offset);
+        }
+    }
+
+    /**
+     * Decodes every address in accounts into the same position of publicKeys.
+     *
+     * @param accounts   the account addresses.
+     * @param publicKeys receives the keys as hexadecimal digits.
+     * @throws IllegalArgumentException if any address is invalid.
+     */
+    public static void decode(String[] accounts, String[] publicKeys) {
+        AddressCodec codec = CODEC.get();
+        for (int i = 0; i < accounts.length; i++) {
+            if (!codec.decode(accounts[i], codec.key, 0)) {
+                throw new IllegalArgumentException("Invalid account at index " + i + ": " + accounts[i]);
+            }
+            publicKeys[i] = Hex.encode(codec.key);
+        }
+    }
+
+    /**
+     * Decodes accounts into keys packed back to back, 32 bytes each,
+     * without allocating.
+     *
+     * @param accounts   the account addresses.
+     * @param publicKeys receives the packed keys, at least 32 bytes per account.
+     * @throws IllegalArgumentException if any address is invalid.
+     */
+    public static void decode(String[] accounts, byte[] publicKeys) {
+        AddressCodec codec = CODEC.get();
+        for (int i = 0; i < accounts.length; i++) {
+            if (!codec.decode(accounts[i], publicKeys, i * PUBLIC_KEY_LENGTH)) {
+                throw new IllegalArgumentException("Invalid account at index " + i + ": " + accounts[i]);
+            }
+        }
+    }
+
+    private String encode(byte[] publicKey, int offset) {
+        int position = PREFIX.length();
+
+        // 256 bits of key, padded at the front with 4 zero bits to fill 52 characters.
+        int accumulator = 0;
+        int bits = 4;
+        for (int i = 0; i < PUBLIC_KEY_LENGTH; i++) {
+            accumulator = (accumulator << 8) | (publicKey[offset + i] & 0xFF);
+            bits += 8;
+            while (bits >= 5) {
+                bits -= 5;
+                chars[position++] = ALPHABET[(accumulator >>> bits) & 0x1F];
+            }
+        }
+
+        checksum(publicKey, offset);
+        for (int i = CHECKSUM_LENGTH - 1; i >= 0; i--) {
+            accumulator = (accumulator << 8) | (checksum[i] & 0xFF);
+            bits += 8;
+            while (bits >= 5) {
+                bits -= 5;
+                chars[position++] = ALPHABET[(accumulator >>> bits) & 0x1F];
+            }
+        }
+        return new String(chars, 0, ADDRESS_LENGTH);
+    }
+
+    private boolean decode(String account, byte[] out, int offset) {
+        if (account == null) {
+            return false;
+        }
+        int position;
+        if (account.length() == ADDRESS_LENGTH && account.startsWith(PREFIX)) {
+            position = PREFIX.length();
+        } else if (account.length() == ADDRESS_LENGTH + 1 && account.startsWith(NANO_PREFIX)) {
+            position = NANO_PREFIX.length();
+        } else {
+            return false;
+        }
+
+        // The first character only carries the lowest bit of the padded key.
+        int first = value(account.charAt(position++));
+        if (first < 0 || first > 1) {
+            return false;
+        }
+        int accumulator = first;
+        int bits = 1;
+        int index = offset;
+        for (int i = 1; i < KEY_CHARS; i++) {
+            int value = value(account.charAt(position++));
+            if (value < 0) {
+                return false;
+            }
+            accumulator = (accumulator << 5) | value;
+            bits += 5;
+            if (bits >= 8) {
+                bits -= 8;
+                out[index++] = (byte) (accumulator >>> bits);
+            }
+        }
+
+        checksum(out, offset);
+        for (int i = CHECKSUM_LENGTH - 1; i >= 0; ) {
+            int value = value(account.charAt(position++));
+            if (value < 0) {
+                return false;
+            }
+            accumulator = (accumulator << 5) | value;
+            bits += 5;
+            if (bits >= 8) {
+                bits -= 8;
+                if ((byte) (accumulator >>> bits) != checksum[i--]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void checksum(byte[] publicKey, int offset) {
+        blake2b.update(publicKey, offset, PUBLIC_KEY_LENGTH);
+        blake2b.digest(checksum, 0);
+    }
+
+    private static int value(char c) {
+        return c < VALUES.length ? VALUES[c] : -1;
+    }
+}
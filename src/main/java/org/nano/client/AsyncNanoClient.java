@@ -0,0 +1,748 @@
+package org.nano.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking variant of {@link NanoClient}. Every method queues the RPC on
+ * the OkHttp dispatcher and returns immediately, so a small thread pool can
+ * keep many requests in flight against the node.
+ * <p>
+ * Futures complete exceptionally with a {@link NanoException} when the node
+ * returns an error or cannot be reached.
+ */
+public class AsyncNanoClient {
+
+    private static final String INVALID_WORK = "Invalid work";
+
+    private final NanoClient client;
+    private final boolean blocking;
+
+    public AsyncNanoClient() {
+        this(new NanoClient());
+    }
+
+    public AsyncNanoClient(String host) {
+        this(new NanoClient(host));
+    }
+
+    /**
+     * Creates an asynchronous client sharing the transport of an existing client.
+     *
+     * @param client the blocking client to share the connection with.
+     */
+    public AsyncNanoClient(NanoClient client) {
+        this(client, false);
+    }
+
+    /**
+     * @param blocking whether to make RPCs on the calling thread, for the
+     *                 methods of {@link NanoClient} which wait for the result.
+     */
+    AsyncNanoClient(NanoClient client, boolean blocking) {
+        this.client = client;
+        this.blocking = blocking;
+    }
+
+    // region Account Methods
+
+    /**
+     * @see NanoClient#getAccountBalance(String)
+     */
+    public CompletableFuture<Balance> getAccountBalance(String account) {
+        BalanceBatcher batcher = client.getBalanceBatcher();
+        if (batcher != null) {
+            return batcher.load(account);
+        }
+
+        Request request = Request.action("account_balance")
+            .param("account", account)
+            .build();
+
+        return request(request, Balance.class).thenApply(balance -> {
+            balance.setAccount(account);
+            return balance;
+        });
+    }
+
+    /**
+     * @see NanoClient#getAccountBlockCount(String)
+     */
+    public CompletableFuture<AccountBlockCount> getAccountBlockCount(String account) {
+        Request request = Request.action("account_block_count")
+            .param("account", account)
+            .build();
+
+        return request(request, AccountBlockCount.class);
+    }
+
+    /**
+     * @see NanoClient#getAccountInformation(String)
+     */
+    public CompletableFuture<AccountInformation> getAccountInformation(String account) {
+        return getAccountInformation(account, false, false, false);
+    }
+
+    /**
+     * @see NanoClient#getAccountInformation(String, boolean, boolean, boolean)
+     */
+    public CompletableFuture<AccountInformation> getAccountInformation(String account,
+                                                                       boolean representative,
+                                                                       boolean weight,
+                                                                       boolean pending) {
+        Request request = Request.action("account_info")
+            .param("account", account)
+            .param("representative", representative)
+            .param("weight", weight)
+            .param("pending", pending)
+            .build();
+        return request(request, AccountInformation.class);
+    }
+
+    /**
+     * @see NanoClient#createAccount(String)
+     */
+    public CompletableFuture<AccountCreate> createAccount(String wallet) {
+        return createAccount(wallet, true);
+    }
+
+    /**
+     * @see NanoClient#createAccount(String, boolean)
+     */
+    public CompletableFuture<AccountCreate> createAccount(String wallet, boolean work) {
+        Request request = Request.action("account_create")
+            .param("wallet", wallet)
+            .param("work", work)
+            .build();
+
+        return request(request, AccountCreate.class);
+    }
+
+    /**
+     * @see NanoClient#getAccount(String)
+     */
+    public CompletableFuture<AccountGet> getAccount(String publicKey) {
+        if (client.isLocalAddressCodec()) {
+            return local(() -> NanoClient.encodeAccount(publicKey));
+        }
+
+        Request request = Request.action("account_get")
+            .param("key", publicKey)
+            .build();
+
+        return request(request, AccountGet.class);
+    }
+
+    /**
+     * @see NanoClient#getAccountHistory(String, Integer)
+     */
+    public CompletableFuture<AccountHistory> getAccountHistory(String account, Integer count) {
+        Request request = Request.action("account_history")
+            .param("account", account)
+            .param("count", count)
+            .build();
+
+        return request(request, AccountHistory.class);
+    }
+
+    /**
+     * @see NanoClient#getAccountList(String)
+     */
+    public CompletableFuture<AccountList> getAccountList(String wallet) {
+        Request request = Request.action("account_list")
+            .param("wallet", wallet)
+            .build();
+
+        return request(request, AccountList.class);
+    }
+
+    /**
+     * @see NanoClient#moveAccounts(String, String, List)
+     */
+    public CompletableFuture<AccountMove> moveAccounts(String from, String to, List<String> accounts) {
+        Request request = Request.action("account_move")
+            .param("source", from)
+            .param("wallet", to)
+            .param("accounts", accounts)
+            .build();
+
+        return request(request, AccountMove.class);
+    }
+
+    /**
+     * @see NanoClient#getAccountPublicKey(String)
+     */
+    public CompletableFuture<AccountPublicKey> getAccountPublicKey(String account) {
+        if (client.isLocalAddressCodec()) {
+            return local(() -> NanoClient.decodeAccount(account));
+        }
+
+        Request request = Request.action("account_key")
+            .param("account", account)
+            .build();
+
+        return request(request, AccountPublicKey.class);
+    }
+
+    /**
+     * @see NanoClient#removeAccount(String, String)
+     */
+    public CompletableFuture<AccountRemove> removeAccount(String wallet, String account) {
+        Request request = Request.action("account_remove")
+            .param("account", account)
+            .param("wallet", wallet)
+            .build();
+
+        return request(request, AccountRemove.class);
+    }
+
+    /**
+     * @see NanoClient#getAccountRepresentative(String)
+     */
+    public CompletableFuture<AccountRepresentative> getAccountRepresentative(String account) {
+        Request request = Request.action("account_representative")
+            .param("account", account)
+            .build();
+
+        return request(request, AccountRepresentative.class);
+    }
+
+    /**
+     * @see NanoClient#setAccountRepresentative(String, String, String)
+     */
+    public CompletableFuture<AccountRepresentativeSet> setAccountRepresentative(String wallet, String account, String representative) {
+        Request request = Request.action("account_representative_set")
+            .param("wallet", wallet)
+            .param("account", account)
+            .param("representative", representative)
+            .build();
+
+        return request(request, AccountRepresentativeSet.class);
+    }
+
+    /**
+     * @see NanoClient#getAccountWeight(String)
+     */
+    public CompletableFuture<AccountWeight> getAccountWeight(String account) {
+        Request request = Request.action("account_weight")
+            .param("account", account)
+            .build();
+
+        return request(request, AccountWeight.class);
+    }
+
+    /**
+     * @see NanoClient#getAccountBalances(List)
+     */
+    public CompletableFuture<Balances> getAccountBalances(List<String> accounts) {
+        ChunkedExecutor chunkedExecutor = client.getChunkedExecutor();
+        if (chunkedExecutor != null) {
+            return chunkedExecutor.execute(accounts, chunk -> Request.action("accounts_balances")
+                .param("accounts", chunk)
+                .build(), Balances.class, Balances::new, Balances::merge);
+        }
+
+        Request request = Request.action("accounts_balances")
+            .param("accounts", accounts)
+            .build();
+
+        return request(request, Balances.class);
+    }
+
+    /**
+     * @see NanoClient#createAccounts(String, Integer)
+     */
+    public CompletableFuture<AccountsCreate> createAccounts(String wallet, Integer count) {
+        return createAccounts(wallet, count, true);
+    }
+
+    /**
+     * @see NanoClient#createAccounts(String, Integer, boolean)
+     */
+    public CompletableFuture<AccountsCreate> createAccounts(String wallet, Integer count, boolean work) {
+        Request request = Request.action("accounts_create")
+            .param("wallet", wallet)
+            .param("count", count)
+            .param("work", work)
+            .build();
+
+        return request(request, AccountsCreate.class);
+    }
+
+    /**
+     * @see NanoClient#getAccountsFrontiers(List)
+     */
+    public CompletableFuture<AccountsFrontiers> getAccountsFrontiers(List<String> accounts) {
+        ChunkedExecutor chunkedExecutor = client.getChunkedExecutor();
+        if (chunkedExecutor != null) {
+            return chunkedExecutor.execute(accounts, chunk -> Request.action("accounts_frontiers")
+                .param("accounts", chunk)
+                .build(), AccountsFrontiers.class, AccountsFrontiers::new, AccountsFrontiers::merge);
+        }
+
+        Request request = Request.action("accounts_frontiers")
+            .param("accounts", accounts)
+            .build();
+
+        return request(request, AccountsFrontiers.class);
+    }
+
+    /**
+     * @see NanoClient#getAccountsPending(List, Integer)
+     */
+    public CompletableFuture<AccountsPending> getAccountsPending(List<String> accounts, Integer count) {
+        ChunkedExecutor chunkedExecutor = client.getChunkedExecutor();
+        if (chunkedExecutor != null) {
+            return chunkedExecutor.execute(accounts, chunk -> Request.action("accounts_pending")
+                .param("accounts", chunk)
+                .param("count", count)
+                .build(), AccountsPending.class, AccountsPending::new, AccountsPending::merge);
+        }
+
+        Request request = Request.action("accounts_pending")
+            .param("accounts", accounts)
+            .param("count", count)
+            .build();
+
+        return request(request, AccountsPending.class);
+    }
+
+    // endregion
+
+    // region Block Methods
+
+    /**
+     * @see NanoClient#getBlockAccount(String)
+     */
+    public CompletableFuture<BlockAccount> getBlockAccount(String hash) {
+        BlockCache cache = client.getBlockCache();
+        if (cache != null) {
+            String account = cache.getAccount(hash);
+            if (account != null) {
+                return CompletableFuture.completedFuture(new BlockAccount(account));
+            }
+        }
+
+        Request request = Request.action("block_account")
+            .param("hash", hash)
+            .build();
+
+        CompletableFuture<BlockAccount> future = request(request, BlockAccount.class);
+        if (cache != null) {
+            return future.thenApply(blockAccount -> {
+                cache.putAccount(hash, blockAccount.getAccount());
+                return blockAccount;
+            });
+        }
+        return future;
+    }
+
+    /**
+     * @see NanoClient#getBlockCount()
+     */
+    public CompletableFuture<BlockCount> getBlockCount() {
+        Request request = Request.action("block_count").build();
+        return request(request, BlockCount.class);
+    }
+
+    /**
+     * @see NanoClient#getBlockCountType()
+     */
+    public CompletableFuture<BlockCountType> getBlockCountType() {
+        Request request = Request.action("block_count_type").build();
+        return request(request, BlockCountType.class);
+    }
+
+    /**
+     * @see NanoClient#getChain(String, Integer)
+     */
+    public CompletableFuture<Chain> getChain(String block, Integer count) {
+        BlockCache cache = client.getBlockCache();
+        if (cache == null || count == null || count < 1) {
+            return request(NanoClient.chainRequest(block, count), Chain.class);
+        }
+
+        List<String> blocks = new ArrayList<>();
+        String next = cache.walk(block, count, blocks);
+        if (next == null) {
+            return CompletableFuture.completedFuture(new Chain(blocks));
+        }
+        int remaining = count - blocks.size();
+        return request(NanoClient.chainRequest(next, NanoClient.fetchCount(remaining)), Chain.class)
+            .thenApply(chain -> cacheChain(cache, blocks, chain, remaining));
+    }
+
+    /**
+     * Records a chain fetched from the node, then returns it after the blocks
+     * found in the cache, without the extra block fetched.
+     */
+    private static Chain cacheChain(BlockCache cache, List<String> cached, Chain fetched, int remaining) {
+        List<String> blocks = fetched.getBlocks() != null ? fetched.getBlocks() : Collections.emptyList();
+        cache.putChain(blocks, NanoClient.fetchCount(remaining));
+        if (cached.isEmpty() && blocks.size() <= remaining) {
+            return fetched;
+        }
+        cached.addAll(blocks.subList(0, Math.min(blocks.size(), remaining)));
+        return new Chain(cached);
+    }
+
+    /**
+     * @see NanoClient#process(StateBlock)
+     */
+    public CompletableFuture<ProcessedBlock> process(StateBlock block) {
+        Request request = Request.action("process")
+            .param("block", client.encodeBlock(block))
+            .build();
+
+        BlockCache cache = client.getBlockCache();
+        WorkPrecache precache = client.getWorkPrecache();
+        return request(request, ProcessedBlock.class).thenApply(processed -> {
+            if (cache != null) {
+                cache.put(block);
+            }
+            if (precache != null) {
+                precache.updated(block.getAccount(), processed.getHash());
+            }
+            return processed;
+        });
+    }
+
+    // endregion
+
+    // region Conversion Methods
+
+    /**
+     * @see NanoClient#mraiFromRaw(String)
+     */
+    public CompletableFuture<String> mraiFromRaw(String raw) {
+        return convert(Unit.MRAI::fromRaw, raw);
+    }
+
+    /**
+     * @see NanoClient#mraiFromRawExact(String)
+     */
+    public CompletableFuture<String> mraiFromRawExact(String raw) {
+        return convert(Unit.MRAI::fromRawExact, raw);
+    }
+
+    /**
+     * @see NanoClient#mraiToRaw(String)
+     */
+    public CompletableFuture<String> mraiToRaw(String mrai) {
+        return convert(Unit.MRAI::toRaw, mrai);
+    }
+
+    /**
+     * @see NanoClient#kraiFromRaw(String)
+     */
+    public CompletableFuture<String> kraiFromRaw(String raw) {
+        return convert(Unit.KRAI::fromRaw, raw);
+    }
+
+    /**
+     * @see NanoClient#kraiFromRawExact(String)
+     */
+    public CompletableFuture<String> kraiFromRawExact(String raw) {
+        return convert(Unit.KRAI::fromRawExact, raw);
+    }
+
+    /**
+     * @see NanoClient#kraiToRaw(String)
+     */
+    public CompletableFuture<String> kraiToRaw(String krai) {
+        return convert(Unit.KRAI::toRaw, krai);
+    }
+
+    /**
+     * @see NanoClient#raiFromRaw(String)
+     */
+    public CompletableFuture<String> raiFromRaw(String raw) {
+        return convert(Unit.RAI::fromRaw, raw);
+    }
+
+    /**
+     * @see NanoClient#raiFromRawExact(String)
+     */
+    public CompletableFuture<String> raiFromRawExact(String raw) {
+        return convert(Unit.RAI::fromRawExact, raw);
+    }
+
+    /**
+     * @see NanoClient#raiToRaw(String)
+     */
+    public CompletableFuture<String> raiToRaw(String rai) {
+        return convert(Unit.RAI::toRaw, rai);
+    }
+
+    private static CompletableFuture<String> convert(Function<String, String> conversion, String amount) {
+        return local(() -> NanoClient.convert(conversion, amount));
+    }
+
+    /**
+     * Returns the result of a calculation made without contacting the node.
+     */
+    private static <T> CompletableFuture<T> local(Supplier<T> supplier) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            future.complete(supplier.get());
+        } catch (NanoException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    // endregion
+
+    // region Node Methods
+
+    /**
+     * @see NanoClient#getNodeVersion()
+     */
+    public CompletableFuture<NodeVersion> getNodeVersion() {
+        Request request = Request.action("version").build();
+        return request(request, NodeVersion.class);
+    }
+
+    /**
+     * @see NanoClient#stopNode()
+     */
+    public CompletableFuture<Void> stopNode() {
+        Request request = Request.action("stop").build();
+        return request(request, VoidResponse.class).thenApply(r -> null);
+    }
+
+    // endregion
+
+    // region Receive Methods
+
+    /**
+     * @see NanoClient#receive(String, String, String)
+     */
+    public CompletableFuture<Receive> receive(String wallet, String account, String block) {
+        WorkPrecache precache = client.getWorkPrecache();
+        String work = precache != null ? precache.take(account) : null;
+        if (work == null) {
+            return receive(wallet, account, block, null);
+        }
+        return retryWithoutWork(receive(wallet, account, block, work), () -> {
+            precache.rejected(account, work);
+            return receive(wallet, account, block, null);
+        });
+    }
+
+    /**
+     * @see NanoClient#receive(String, String, String, String)
+     */
+    public CompletableFuture<Receive> receive(String wallet, String account, String block, String work) {
+        Request request = Request.action("receive")
+            .param("wallet", wallet)
+            .param("account", account)
+            .param("block", block)
+            .param("work", work)
+            .build();
+
+        WorkPrecache precache = client.getWorkPrecache();
+        return request(request, Receive.class).thenApply(receive -> {
+            if (precache != null) {
+                precache.updated(account, receive.getBlock());
+            }
+            return receive;
+        });
+    }
+
+    /**
+     * @see NanoClient#getReceiveMinimum()
+     */
+    public CompletableFuture<ReceiveMinimum> getReceiveMinimum() {
+        Request request = Request.action("receive_minimum").build();
+        return request(request, ReceiveMinimum.class);
+    }
+
+    /**
+     * @see NanoClient#setReceiveMinimum(String)
+     */
+    public CompletableFuture<Void> setReceiveMinimum(String amount) {
+        Request request = Request.action("receive_minimum_set")
+            .param("amount", amount)
+            .build();
+
+        return request(request, VoidResponse.class).thenApply(r -> null);
+    }
+
+    // endregion
+
+    // region Representative Methods
+
+    /**
+     * @see NanoClient#getRepresentatives()
+     */
+    public CompletableFuture<Representatives> getRepresentatives() {
+        Request request = Request.action("representatives").build();
+        return request(request, Representatives.class);
+    }
+
+    /**
+     * @see NanoClient#getWalletRepresentative(String)
+     */
+    public CompletableFuture<WalletRepresentative> getWalletRepresentative(String wallet) {
+        Request request = Request.action("wallet_representative")
+            .param("wallet", wallet)
+            .build();
+
+        return request(request, WalletRepresentative.class);
+    }
+
+    /**
+     * @see NanoClient#setWalletRepresentative(String, String)
+     */
+    public CompletableFuture<Void> setWalletRepresentative(String wallet, String representative) {
+        Request request = Request.action("wallet_representative_set")
+            .param("wallet", wallet)
+            .param("representative", representative)
+            .build();
+
+        return request(request, WalletRepresentativeSet.class).thenApply(r -> null);
+    }
+
+    // endregion
+
+    // region Send Methods
+
+    /**
+     * @see NanoClient#send(String, String, String, String)
+     */
+    public CompletableFuture<Send> send(String wallet, String source, String destination, String amount) {
+        WorkPrecache precache = client.getWorkPrecache();
+        String work = precache != null ? precache.take(source) : null;
+        if (work == null) {
+            return send(wallet, source, destination, amount, null);
+        }
+        return retryWithoutWork(send(wallet, source, destination, amount, work), () -> {
+            precache.rejected(source, work);
+            return send(wallet, source, destination, amount, null);
+        });
+    }
+
+    /**
+     * @see NanoClient#send(String, String, String, String, String)
+     */
+    public CompletableFuture<Send> send(String wallet, String source, String destination, String amount, String work) {
+        Request request = Request.action("send")
+            .param("wallet", wallet)
+            .param("source", source)
+            .param("destination", destination)
+            .param("amount", amount)
+            .param("work", work)
+            .build();
+
+        WorkPrecache precache = client.getWorkPrecache();
+        return request(request, Send.class).thenApply(send -> {
+            if (precache != null) {
+                precache.updated(source, send.getBlock());
+            }
+            return send;
+        });
+    }
+
+    /**
+     * Precached work is stale if the account's frontier moved outside this
+     * client since it was generated. The node then rejects the work without
+     * creating a block, so the work is dropped from the precache and the
+     * call is made once more for the node to generate the work itself.
+     */
+    private static <T> CompletableFuture<T> retryWithoutWork(CompletableFuture<T> future,
+                                                             Supplier<CompletableFuture<T>> retry) {
+        return future.handle((t, e) -> {
+            if (e == null) {
+                return CompletableFuture.completedFuture(t);
+            }
+            Throwable cause = Futures.unwrap(e);
+            if (cause instanceof NanoException && INVALID_WORK.equals(cause.getMessage())) {
+                return retry.get();
+            }
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(cause);
+            return failed;
+        }).thenCompose(f -> f);
+    }
+
+    // endregion
+
+    // region Wallet Methods
+
+    /**
+     * @see NanoClient#getWalletBalances(String)
+     */
+    public CompletableFuture<Balances> getWalletBalances(String wallet) {
+        Request request = Request.action("wallet_balances")
+            .param("wallet", wallet)
+            .build();
+
+        return request(request, Balances.class);
+    }
+
+    /**
+     * @see NanoClient#changeWalletSeed(String, String)
+     */
+    public CompletableFuture<Void> changeWalletSeed(String wallet, String seed) {
+        Request request = Request.action("wallet_change_seed")
+            .param("wallet", wallet)
+            .param("seed", seed)
+            .build();
+
+        return request(request, VoidResponse.class).thenApply(r -> null);
+    }
+
+    /**
+     * @see NanoClient#walletContainsAccount(String, String)
+     */
+    public CompletableFuture<Boolean> walletContainsAccount(String wallet, String account) {
+        Request request = Request.action("wallet_contains")
+            .param("wallet", wallet)
+            .param("account", account)
+            .build();
+
+        return request(request, ExistenceResponse.class).thenApply(ExistenceResponse::exists);
+    }
+
+    // endregion
+
+    // region Work Methods
+
+    /**
+     * @see NanoClient#generateWork(String)
+     */
+    public CompletableFuture<WorkGenerate> generateWork(String hash) {
+        Request request = Request.action("work_generate")
+            .param("hash", hash)
+            .build();
+
+        return request(request, WorkGenerate.class);
+    }
+
+    /**
+     * @see NanoClient#validateWork(String, String)
+     */
+    public CompletableFuture<Boolean> validateWork(String work, String hash) {
+        if (client.isLocalWorkValidation()) {
+            return local(() -> NanoClient.isValidWork(work, hash));
+        }
+
+        Request request = Request.action("work_validate")
+            .param("work", work)
+            .param("hash", hash)
+            .build();
+
+        return request(request, WorkValidation.class).thenApply(WorkValidation::isValid);
+    }
+
+    // endregion
+
+    private <T extends BaseResponse> CompletableFuture<T> request(Request r, Class<T> clazz) {
+        return client.requestAsync(r, clazz, blocking);
+    }
+}
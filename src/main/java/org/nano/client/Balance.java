@@ -5,6 +5,8 @@ public class Balance extends BaseResponse {
     private String account;
     private String balance;
     private String pending;
+    private transient Raw balanceRaw;
+    private transient Raw pendingRaw;
 
     public String getAccount() {
         return account;
@@ -16,17 +18,33 @@ public class Balance extends BaseResponse {
 
     public void setBalance(String balance) {
         this.balance = balance;
+        this.balanceRaw = null;
     }
 
     public void setPending(String pending) {
         this.pending = pending;
+        this.pendingRaw = null;
     }
 
     public String getBalance() {
         return balance;
     }
 
+    /**
+     * @return the balance as a {@link Raw} amount, parsed on first use.
+     */
+    public Raw getBalanceRaw() {
+        return balanceRaw = Raw.parseIfAbsent(balanceRaw, balance);
+    }
+
     public String getPending() {
         return pending;
     }
+
+    /**
+     * @return the pending as a {@link Raw} amount, parsed on first use.
+     */
+    public Raw getPendingRaw() {
+        return pendingRaw = Raw.parseIfAbsent(pendingRaw, pending);
+    }
 }
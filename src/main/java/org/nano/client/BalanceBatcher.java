@@ -0,0 +1,126 @@
+package org.nano.client;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gathers single account balance lookups made within a short window and
+ * sends them as one accounts_balances request.
+ * <p>
+ * A batch is sent when it reaches the maximum size or when the window since
+ * its first lookup has passed, whichever comes first. Lookups of the same
+ * account within a batch share one result. If the node rejects the batch,
+ * for example because one of the accounts is invalid, each account is looked
+ * up individually so that only the offending callers see the error.
+ */
+class BalanceBatcher {
+
+    private final NanoClient client;
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final Object lock = new Object();
+    private Map<String, CompletableFuture<Balance>> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> timer;
+
+    BalanceBatcher(NanoClient client, int maxBatchSize, long windowNanos) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1");
+        }
+        this.client = client;
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = windowNanos;
+    }
+
+    CompletableFuture<Balance> load(String account) {
+        CompletableFuture<Balance> future;
+        Map<String, CompletableFuture<Balance>> full = null;
+        synchronized (lock) {
+            future = pending.get(account);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                pending.put(account, future);
+            }
+            if (pending.size() >= maxBatchSize) {
+                full = takePending();
+            } else if (timer == null) {
+                timer = SharedScheduler.INSTANCE.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return future.thenApply(balance -> balance);
+    }
+
+    void flush() {
+        Map<String, CompletableFuture<Balance>> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = takePending();
+        }
+        dispatch(batch);
+    }
+
+    private Map<String, CompletableFuture<Balance>> takePending() {
+        Map<String, CompletableFuture<Balance>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if (timer != null) {
+            timer.cancel(false);
+            timer = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(Map<String, CompletableFuture<Balance>> batch) {
+        if (batch.size() == 1) {
+            Map.Entry<String, CompletableFuture<Balance>> entry = batch.entrySet().iterator().next();
+            loadOne(entry.getKey(), entry.getValue());
+            return;
+        }
+
+        Request request = Request.action("accounts_balances")
+            .param("accounts", new ArrayList<>(batch.keySet()))
+            .build();
+
+        client.requestAsync(request, Balances.class).whenComplete((balances, e) -> {
+            if (e != null) {
+                Throwable cause = Futures.unwrap(e);
+                if (cause instanceof NanoException && cause.getCause() == null) {
+                    batch.forEach(this::loadOne);
+                } else {
+                    batch.values().forEach(future -> future.completeExceptionally(cause));
+                }
+                return;
+            }
+            batch.forEach((account, future) -> {
+                Balance balance = balances.getBalance(account);
+                if (balance != null) {
+                    future.complete(balance);
+                } else {
+                    loadOne(account, future);
+                }
+            });
+        });
+    }
+
+    private void loadOne(String account, CompletableFuture<Balance> future) {
+        Request request = Request.action("account_balance")
+            .param("account", account)
+            .build();
+
+        client.requestAsync(request, Balance.class).whenComplete((balance, e) -> {
+            if (e != null) {
+                future.completeExceptionally(Futures.unwrap(e));
+            } else {
+                balance.setAccount(account);
+                future.complete(balance);
+            }
+        });
+    }
+}
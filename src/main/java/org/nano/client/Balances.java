@@ -1,6 +1,7 @@
 package org.nano.client;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -17,4 +18,28 @@ class Balances extends BaseResponse {
         }
         return output;
     }
+
+    /**
+     * @return the balance of a single account, or null if it was not part of the response.
+     */
+    Balance getBalance(String account) {
+        Balance balance = balances == null ? null : balances.get(account);
+        if (balance != null) {
+            balance.setAccount(account);
+        }
+        return balance;
+    }
+
+    /**
+     * Adds the entries of the response to another chunk of the same request.
+     */
+    void merge(Balances other) {
+        if (other.balances == null) {
+            return;
+        }
+        if (balances == null) {
+            balances = new LinkedHashMap<>();
+        }
+        balances.putAll(other.balances);
+    }
 }
@@ -0,0 +1,274 @@
+package org.nano.client;
+
+/**
+ * Unkeyed Blake2b as specified by RFC 7693, with a digest length between 1
+ * and 64 bytes.
+ * <p>
+ * Nano uses several digest lengths: 5 bytes for address checksums, 8 bytes
+ * for proof of work and 32 bytes for block hashes. An instance keeps its
+ * state in fields and a reused block buffer, so once created it can hash any
+ * number of messages without allocating. Instances are not thread safe.
+ */
+final class Blake2b {
+
+    static final int MAX_DIGEST_LENGTH = 64;
+
+    private static final int BLOCK_LENGTH = 128;
+
+    private static final long IV0 = 0x6a09e667f3bcc908L;
+    private static final long IV1 = 0xbb67ae8584caa73bL;
+    private static final long IV2 = 0x3c6ef372fe94f82bL;
+    private static final long IV3 = 0xa54ff53a5f1d36f1L;
+    private static final long IV4 = 0x510e527fade682d1L;
+    private static final long IV5 = 0x9b05688c2b3e6c1fL;
+    private static final long IV6 = 0x1f83d9abfb41bd6bL;
+    private static final long IV7 = 0x5be0cd19137e2179L;
+
+    // Message word permutations for each of the 12 rounds, flattened.
+    private static final byte[] SIGMA = {
+        0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15,
+        14, 10, 4, 8, 9, 15, 13, 6, 1, 12, 0, 2, 11, 7, 5, 3,
+        11, 8, 12, 0, 5, 2, 15, 13, 10, 14, 3, 6, 7, 1, 9, 4,
+        7, 9, 3, 1, 13, 12, 11, 14, 2, 6, 5, 10, 4, 0, 15, 8,
+        9, 0, 5, 7, 2, 4, 10, 15, 14, 1, 11, 12, 6, 8, 3, 13,
+        2, 12, 6, 10, 0, 11, 8, 3, 4, 13, 7, 5, 15, 14, 1, 9,
+        12, 5, 1, 15, 14, 13, 4, 10, 0, 7, 6, 3, 9, 2, 8, 11,
+        13, 11, 7, 14, 12, 1, 3, 9, 5, 0, 15, 4, 8, 6, 2, 10,
+        6, 15, 14, 9, 11, 3, 0, 8, 12, 2, 13, 7, 1, 4, 10, 5,
+        10, 2, 8, 4, 7, 6, 1, 5, 15, 11, 9, 14, 3, 12, 13, 0,
+        0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15,
+        14, 10, 4, 8, 9, 15, 13, 6, 1, 12, 0, 2, 11, 7, 5, 3
+    };
+
+    private final int digestLength;
+    private final long[] m = new long[16];
+    private final byte[] buffer = new byte[BLOCK_LENGTH];
+    private long h0, h1, h2, h3, h4, h5, h6, h7;
+    private int bufferLength;
+    private long counter;
+
+    Blake2b(int digestLength) {
+        if (digestLength < 1 || digestLength > MAX_DIGEST_LENGTH) {
+            throw new IllegalArgumentException("Digest length must be between 1 and 64 bytes");
+        }
+        this.digestLength = digestLength;
+        reset();
+    }
+
+    int getDigestLength() {
+        return digestLength;
+    }
+
+    /**
+     * Discards any input so the instance can hash a new message.
+     */
+    void reset() {
+        h0 = IV0 ^ 0x01010000L ^ digestLength;
+        h1 = IV1;
+        h2 = IV2;
+        h3 = IV3;
+        h4 = IV4;
+        h5 = IV5;
+        h6 = IV6;
+        h7 = IV7;
+        bufferLength = 0;
+        counter = 0;
+    }
+
+    void update(byte input) {
+        if (bufferLength == BLOCK_LENGTH) {
+            counter += BLOCK_LENGTH;
+            compress(buffer, 0, false);
+            bufferLength = 0;
+        }
+        buffer[bufferLength++] = input;
+    }
+
+    void update(byte[] input) {
+        update(input, 0, input.length);
+    }
+
+    void update(byte[] input, int offset, int length) {
+        if (length <= 0) {
+            return;
+        }
+        // The final block is compressed differently, so a full buffer is
+        // only compressed once more input is known to follow it.
+        if (bufferLength > 0) {
+            int n = Math.min(length, BLOCK_LENGTH - bufferLength);
+            System.arraycopy(input, offset, buffer, bufferLength, n);
+            bufferLength += n;
+            offset += n;
+            length -= n;
+            if (length == 0) {
+                return;
+            }
+            counter += BLOCK_LENGTH;
+            compress(buffer, 0, false);
+            bufferLength = 0;
+        }
+        // Whole blocks are compressed straight from the input.
+        while (length > BLOCK_LENGTH) {
+            counter += BLOCK_LENGTH;
+            compress(input, offset, false);
+            offset += BLOCK_LENGTH;
+            length -= BLOCK_LENGTH;
+        }
+        System.arraycopy(input, offset, buffer, 0, length);
+        bufferLength = length;
+    }
+
+    byte[] digest() {
+        byte[] out = new byte[digestLength];
+        digest(out, 0);
+        return out;
+    }
+
+    /**
+     * Writes the digest to out and resets the hash so it can be reused.
+     */
+    void digest(byte[] out, int offset) {
+        counter += bufferLength;
+        for (int i = bufferLength; i < BLOCK_LENGTH; i++) {
+            buffer[i] = 0;
+        }
+        compress(buffer, 0, true);
+        for (int i = 0; i < digestLength; i++) {
+            out[offset + i] = (byte) (word(i >> 3) >>> ((i & 7) << 3));
+        }
+        reset();
+    }
+
+    /**
+     * Finishes the hash and returns the first 8 bytes of the digest as a
+     * little endian long, as used for proof of work, then resets.
+     */
+    long digestLong() {
+        counter += bufferLength;
+        for (int i = bufferLength; i < BLOCK_LENGTH; i++) {
+            buffer[i] = 0;
+        }
+        compress(buffer, 0, true);
+        long result = h0;
+        reset();
+        return digestLength >= 8 ? result : result & ((1L << (digestLength << 3)) - 1);
+    }
+
+    private long word(int i) {
+        switch (i) {
+            case 0: return h0;
+            case 1: return h1;
+            case 2: return h2;
+            case 3: return h3;
+            case 4: return h4;
+            case 5: return h5;
+            case 6: return h6;
+            default: return h7;
+        }
+    }
+
+    private void compress(byte[] block, int offset, boolean last) {
+        long[] m = this.m;
+        for (int i = 0; i < 16; i++) {
+            m[i] = readLong(block, offset + (i << 3));
+        }
+
+        long v0 = h0, v1 = h1, v2 = h2, v3 = h3, v4 = h4, v5 = h5, v6 = h6, v7 = h7;
+        long v8 = IV0, v9 = IV1, v10 = IV2, v11 = IV3;
+        long v12 = IV4 ^ counter, v13 = IV5, v14 = last ? ~IV6 : IV6, v15 = IV7;
+
+        for (int s = 0; s < SIGMA.length; s += 16) {
+            v0 += v4 + m[SIGMA[s]];
+            v12 = Long.rotateRight(v12 ^ v0, 32);
+            v8 += v12;
+            v4 = Long.rotateRight(v4 ^ v8, 24);
+            v0 += v4 + m[SIGMA[s + 1]];
+            v12 = Long.rotateRight(v12 ^ v0, 16);
+            v8 += v12;
+            v4 = Long.rotateRight(v4 ^ v8, 63);
+
+            v1 += v5 + m[SIGMA[s + 2]];
+            v13 = Long.rotateRight(v13 ^ v1, 32);
+            v9 += v13;
+            v5 = Long.rotateRight(v5 ^ v9, 24);
+            v1 += v5 + m[SIGMA[s + 3]];
+            v13 = Long.rotateRight(v13 ^ v1, 16);
+            v9 += v13;
+            v5 = Long.rotateRight(v5 ^ v9, 63);
+
+            v2 += v6 + m[SIGMA[s + 4]];
+            v14 = Long.rotateRight(v14 ^ v2, 32);
+            v10 += v14;
+            v6 = Long.rotateRight(v6 ^ v10, 24);
+            v2 += v6 + m[SIGMA[s + 5]];
+            v14 = Long.rotateRight(v14 ^ v2, 16);
+            v10 += v14;
+            v6 = Long.rotateRight(v6 ^ v10, 63);
+
+            v3 += v7 + m[SIGMA[s + 6]];
+            v15 = Long.rotateRight(v15 ^ v3, 32);
+            v11 += v15;
+            v7 = Long.rotateRight(v7 ^ v11, 24);
+            v3 += v7 + m[SIGMA[s + 7]];
+            v15 = Long.rotateRight(v15 ^ v3, 16);
+            v11 += v15;
+            v7 = Long.rotateRight(v7 ^ v11, 63);
+
+            v0 += v5 + m[SIGMA[s + 8]];
+            v15 = Long.rotateRight(v15 ^ v0, 32);
+            v10 += v15;
+            v5 = Long.rotateRight(v5 ^ v10, 24);
+            v0 += v5 + m[SIGMA[s + 9]];
+            v15 = Long.rotateRight(v15 ^ v0, 16);
+            v10 += v15;
+            v5 = Long.rotateRight(v5 ^ v10, 63);
+
+            v1 += v6 + m[SIGMA[s + 10]];
+            v12 = Long.rotateRight(v12 ^ v1, 32);
+            v11 += v12;
+            v6 = Long.rotateRight(v6 ^ v11, 24);
+            v1 += v6 + m[SIGMA[s + 11]];
+            v12 = Long.rotateRight(v12 ^ v1, 16);
+            v11 += v12;
+            v6 = Long.rotateRight(v6 ^ v11, 63);
+
+            v2 += v7 + m[SIGMA[s + 12]];
+            v13 = Long.rotateRight(v13 ^ v2, 32);
+            v8 += v13;
+            v7 = Long.rotateRight(v7 ^ v8, 24);
+            v2 += v7 + m[SIGMA[s + 13]];
+            v13 = Long.rotateRight(v13 ^ v2, 16);
+            v8 += v13;
+            v7 = Long.rotateRight(v7 ^ v8, 63);
+
+            v3 += v4 + m[SIGMA[s + 14]];
+            v14 = Long.rotateRight(v14 ^ v3, 32);
+            v9 += v14;
+            v4 = Long.rotateRight(v4 ^ v9, 24);
+            v3 += v4 + m[SIGMA[s + 15]];
+            v14 = Long.rotateRight(v14 ^ v3, 16);
+            v9 += v14;
+            v4 = Long.rotateRight(v4 ^ v9, 63);
+        }
+
+        h0 ^= v0 ^ v8;
+        h1 ^= v1 ^ v9;
+        h2 ^= v2 ^ v10;
+        h3 ^= v3 ^ v11;
+        h4 ^= v4 ^ v12;
+        h5 ^= v5 ^ v13;
+        h6 ^= v6 ^ v14;
+        h7 ^= v7 ^ v15;
+    }
+
+    static long readLong(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFFL)
+            | (bytes[offset + 1] & 0xFFL) << 8
+            | (bytes[offset + 2] & 0xFFL) << 16
+            | (bytes[offset + 3] & 0xFFL) << 24
+            | (bytes[offset + 4] & 0xFFL) << 32
+            | (bytes[offset + 5] & 0xFFL) << 40
+            | (bytes[offset + 6] & 0xFFL) << 48
+            | (bytes[offset + 7] & 0xFFL) << 56;
+    }
+}
@@ -4,6 +4,13 @@ public class BlockAccount extends BaseResponse {
 
     private String account;
 
+    BlockAccount() {
+    }
+
+    BlockAccount(String account) {
+        this.account = account;
+    }
+
     public String getAccount() {
         return account;
     }
@@ -0,0 +1,329 @@
+package org.nano.client;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers facts about blocks which can never change: the account a block
+ * belongs to and the block before it. Entries never expire, so once a chain
+ * has been walked through the node, walking it again is answered locally.
+ * <p>
+ * Entries are kept in an open addressing table of fixed size slots holding
+ * the raw 32 byte hash, account public key and previous hash, rather than as
+ * strings. The table may be held outside the Java heap with
+ * {@link Builder#offHeap(boolean)}. It grows as needed up to the maximum
+ * number of entries; after that, new blocks are not cached and existing ones
+ * continue to be served.
+ * <p>
+ * Register a cache with {@link NanoClient.Builder#blockCache(BlockCache)}.
+ */
+public class BlockCache {
+
+    private static final int HASH_LENGTH = 32;
+    private static final int ACCOUNT_OFFSET = HASH_LENGTH;
+    private static final int PREVIOUS_OFFSET = ACCOUNT_OFFSET + HASH_LENGTH;
+    private static final int FLAGS_OFFSET = PREVIOUS_OFFSET + HASH_LENGTH;
+    private static final int SLOT_LENGTH = FLAGS_OFFSET + 1;
+
+    private static final byte HAS_ACCOUNT = 1;
+    private static final byte HAS_PREVIOUS = 2;
+
+    private static final int INITIAL_SLOTS = 1024;
+    private static final String ZERO_HASH = "0000000000000000000000000000000000000000000000000000000000000000";
+
+    private final int maxEntries;
+    private final boolean offHeap;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private ByteBuffer slots;
+    private int mask;
+    private int size;
+
+    private BlockCache(Builder builder) {
+        this.maxEntries = builder.maxEntries;
+        this.offHeap = builder.offHeap;
+        int count = Math.min(INITIAL_SLOTS, slotsFor(maxEntries));
+        this.slots = allocate(count);
+        this.mask = count - 1;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the account of the block, or null if it is not known.
+     */
+    String getAccount(String hash) {
+        byte[] key = new byte[HASH_LENGTH];
+        byte[] account = null;
+        if (Hex.decode(hash, key, 0, HASH_LENGTH)) {
+            synchronized (this) {
+                int slot = find(key);
+                if (slot >= 0 && has(slot, HAS_ACCOUNT)) {
+                    account = read(slot, ACCOUNT_OFFSET);
+                }
+            }
+        }
+        if (account == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return AddressCodec.encode(account);
+    }
+
+    void putAccount(String hash, String account) {
+        byte[] key = new byte[HASH_LENGTH];
+        if (account == null || !Hex.decode(hash, key, 0, HASH_LENGTH) || !AddressCodec.isValid(account)) {
+            return;
+        }
+        byte[] publicKey = Hex.decode(AddressCodec.decode(account));
+        synchronized (this) {
+            int slot = insert(key);
+            if (slot >= 0) {
+                write(slot, ACCOUNT_OFFSET, publicKey, HAS_ACCOUNT);
+            }
+        }
+    }
+
+    /**
+     * Follows known links back from a block, adding each block to the list.
+     *
+     * @param block the block to start at.
+     * @param count the maximum number of blocks the walk should cover.
+     * @param out   receives the blocks, starting with block itself.
+     * @return the block at which the walk must continue through the node, or
+     * null if it reached the open block or covered count blocks.
+     */
+    String walk(String block, int count, List<String> out) {
+        byte[] key = new byte[HASH_LENGTH];
+        String current = block;
+        synchronized (this) {
+            while (out.size() < count) {
+                int slot = Hex.decode(current, key, 0, HASH_LENGTH) ? find(key) : -1;
+                if (slot < 0 || !has(slot, HAS_PREVIOUS)) {
+                    misses.increment();
+                    return current;
+                }
+                out.add(current.toUpperCase());
+                String previous = Hex.encode(read(slot, PREVIOUS_OFFSET));
+                if (ZERO_HASH.equals(previous)) {
+                    break;
+                }
+                current = previous;
+            }
+        }
+        hits.increment();
+        return null;
+    }
+
+    /**
+     * Records the links in a chain response.
+     *
+     * @param blocks    the blocks returned, each followed by its previous block.
+     * @param requested the number of blocks asked for. When fewer were
+     *                  returned, the last block is the open block.
+     */
+    void putChain(List<String> blocks, int requested) {
+        for (int i = 0; i + 1 < blocks.size(); i++) {
+            putPrevious(blocks.get(i), blocks.get(i + 1));
+        }
+        if (!blocks.isEmpty() && blocks.size() < requested) {
+            putPrevious(blocks.get(blocks.size() - 1), ZERO_HASH);
+        }
+    }
+
+    void putPrevious(String hash, String previous) {
+        byte[] key = new byte[HASH_LENGTH];
+        byte[] value = new byte[HASH_LENGTH];
+        if (!Hex.decode(hash, key, 0, HASH_LENGTH) || !Hex.decode(previous, value, 0, HASH_LENGTH)) {
+            return;
+        }
+        synchronized (this) {
+            int slot = insert(key);
+            if (slot >= 0) {
+                write(slot, PREVIOUS_OFFSET, value, HAS_PREVIOUS);
+            }
+        }
+    }
+
+    /**
+     * Records a block published through the client.
+     */
+    void put(StateBlock block) {
+        putAccount(block.getHash(), block.getAccount());
+        putPrevious(block.getHash(), block.getPrevious());
+    }
+
+    /**
+     * @return the number of lookups and walks answered entirely from the cache.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of lookups and walks which had to contact the node.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of blocks held.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of bytes allocated for the table, on or off the heap.
+     */
+    public synchronized long getMemoryUsage() {
+        return slots.capacity();
+    }
+
+    private int find(byte[] key) {
+        for (int slot = index(key); ; slot = (slot + 1) & mask) {
+            if (slots.get(slot * SLOT_LENGTH + FLAGS_OFFSET) == 0) {
+                return -1;
+            }
+            if (matches(slot, key)) {
+                return slot;
+            }
+        }
+    }
+
+    private int insert(byte[] key) {
+        int slot = find(key);
+        if (slot >= 0) {
+            return slot;
+        }
+        if (size >= maxEntries) {
+            return -1;
+        }
+        if ((size + 1) * 4L > (mask + 1) * 3L) {
+            grow();
+        }
+        slot = index(key);
+        while (slots.get(slot * SLOT_LENGTH + FLAGS_OFFSET) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        int base = slot * SLOT_LENGTH;
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            slots.put(base + i, key[i]);
+        }
+        size++;
+        return slot;
+    }
+
+    private void grow() {
+        ByteBuffer old = slots;
+        int count = (mask + 1) * 2;
+        slots = allocate(count);
+        mask = count - 1;
+        byte[] key = new byte[HASH_LENGTH];
+        for (int from = 0; from < old.capacity(); from += SLOT_LENGTH) {
+            if (old.get(from + FLAGS_OFFSET) == 0) {
+                continue;
+            }
+            for (int i = 0; i < HASH_LENGTH; i++) {
+                key[i] = old.get(from + i);
+            }
+            int slot = index(key);
+            while (slots.get(slot * SLOT_LENGTH + FLAGS_OFFSET) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            int to = slot * SLOT_LENGTH;
+            for (int i = 0; i < SLOT_LENGTH; i++) {
+                slots.put(to + i, old.get(from + i));
+            }
+        }
+    }
+
+    private int index(byte[] key) {
+        // Block hashes are uniformly distributed, so their leading bytes make a good index.
+        return ((key[0] & 0xff) << 24 | (key[1] & 0xff) << 16 | (key[2] & 0xff) << 8 | (key[3] & 0xff)) & mask;
+    }
+
+    private boolean matches(int slot, byte[] key) {
+        int base = slot * SLOT_LENGTH;
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            if (slots.get(base + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean has(int slot, byte flag) {
+        return (slots.get(slot * SLOT_LENGTH + FLAGS_OFFSET) & flag) != 0;
+    }
+
+    private byte[] read(int slot, int offset) {
+        byte[] value = new byte[HASH_LENGTH];
+        int base = slot * SLOT_LENGTH + offset;
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            value[i] = slots.get(base + i);
+        }
+        return value;
+    }
+
+    private void write(int slot, int offset, byte[] value, byte flag) {
+        int base = slot * SLOT_LENGTH;
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            slots.put(base + offset + i, value[i]);
+        }
+        slots.put(base + FLAGS_OFFSET, (byte) (slots.get(base + FLAGS_OFFSET) | flag));
+    }
+
+    private ByteBuffer allocate(int count) {
+        return offHeap ? ByteBuffer.allocateDirect(count * SLOT_LENGTH) : ByteBuffer.allocate(count * SLOT_LENGTH);
+    }
+
+    private static int slotsFor(int entries) {
+        // Keep the table at most three quarters full.
+        long needed = entries * 4L / 3 + 1;
+        return (int) Math.max(2, Long.highestOneBit(needed - 1) << 1);
+    }
+
+    public static class Builder {
+
+        // Beyond this many slots the table would not fit in a single buffer.
+        private static final int MAX_SLOTS = 1 << 24;
+
+        private int maxEntries = 100_000;
+        private boolean offHeap;
+
+        Builder() {
+        }
+
+        /**
+         * @param maxEntries the maximum number of blocks to hold, defaults to 100,000.
+         */
+        public Builder maxEntries(int maxEntries) {
+            if (maxEntries < 1) {
+                throw new IllegalArgumentException("maxEntries must be at least 1");
+            }
+            if (slotsFor(maxEntries) > MAX_SLOTS) {
+                throw new IllegalArgumentException("maxEntries is too large: " + maxEntries);
+            }
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * @param offHeap whether to hold the table in direct memory rather than on the heap.
+         */
+        public Builder offHeap(boolean offHeap) {
+            this.offHeap = offHeap;
+            return this;
+        }
+
+        public BlockCache build() {
+            return new BlockCache(this);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package org.nano.client;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.Reader;
+
+/**
+ * A block announced by the node's RPC callback.
+ */
+public class BlockEvent {
+
+    private String account;
+    private String hash;
+    private String amount;
+    private boolean isSend;
+    private String subtype;
+    private transient Block block;
+    private transient Raw amountRaw;
+
+    /**
+     * Decodes a callback body. Older nodes send the block as a string of
+     * JSON, newer ones as an object.
+     */
+    static BlockEvent decode(Gson gson, Reader reader) {
+        JsonParser parser = new JsonParser();
+        JsonObject json = parser.parse(reader).getAsJsonObject();
+        JsonElement block = json.remove("block");
+        BlockEvent event = gson.fromJson(json, BlockEvent.class);
+        if (block != null && block.isJsonPrimitive()) {
+            block = parser.parse(block.getAsString());
+        }
+        if (block != null && block.isJsonObject()) {
+            event.block = gson.fromJson(block, Block.class);
+        }
+        return event;
+    }
+
+    /**
+     * @return the account the block belongs to.
+     */
+    public String getAccount() {
+        return account;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     * @return the amount sent or received by the block, in raw.
+     */
+    public String getAmount() {
+        return amount;
+    }
+
+    /**
+     * @return the amount as a {@link Raw} amount, parsed on first use.
+     */
+    public Raw getAmountRaw() {
+        return amountRaw = Raw.parseIfAbsent(amountRaw, amount);
+    }
+
+    /**
+     * @return whether the block sends funds.
+     */
+    public boolean isSend() {
+        return isSend;
+    }
+
+    /**
+     * @return the kind of state block, such as send or receive, or null if
+     * the node does not report it.
+     */
+    public String getSubtype() {
+        return subtype;
+    }
+
+    /**
+     * @return the contents of the block, or null if the node did not include them.
+     */
+    public Block getBlock() {
+        return block;
+    }
+
+    /**
+     * The contents of an announced block. Only the fields used by the
+     * block's type are set.
+     */
+    public static class Block {
+
+        private String type;
+        private String account;
+        private String previous;
+        private String representative;
+        private String balance;
+        private String link;
+        private String linkAsAccount;
+        private String source;
+        private String destination;
+        private String signature;
+        private String work;
+
+        public String getType() {
+            return type;
+        }
+
+        public String getAccount() {
+            return account;
+        }
+
+        public String getPrevious() {
+            return previous;
+        }
+
+        public String getRepresentative() {
+            return representative;
+        }
+
+        public String getBalance() {
+            return balance;
+        }
+
+        public String getLink() {
+            return link;
+        }
+
+        public String getLinkAsAccount() {
+            return linkAsAccount;
+        }
+
+        /**
+         * @return the send block received by a legacy receive or open block.
+         */
+        public String getSource() {
+            return source;
+        }
+
+        /**
+         * @return the destination of a legacy send block.
+         */
+        public String getDestination() {
+            return destination;
+        }
+
+        public String getSignature() {
+            return signature;
+        }
+
+        public String getWork() {
+            return work;
+        }
+    }
+}
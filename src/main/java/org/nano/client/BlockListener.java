@@ -0,0 +1,18 @@
+package org.nano.client;
+
+/**
+ * Receives the blocks announced to a {@link CallbackServer}.
+ * <p>
+ * Every listener of a server is called on its single dispatch thread, in the
+ * order the server received the blocks. A slow listener delays the others and
+ * lets the server's buffer fill, so expensive work should be handed off.
+ */
+public interface BlockListener {
+
+    /**
+     * Called for every block the node announces.
+     *
+     * @param event the block and its details.
+     */
+    void blockReceived(BlockEvent event);
+}
@@ -0,0 +1,309 @@
+package org.nano.client;
+
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Receives the node's RPC callback, which POSTs every new block to a
+ * configured address, and hands the blocks to {@link BlockListener}s.
+ * <p>
+ * Requests are decoded on the server's HTTP threads and placed in a bounded
+ * lock-free buffer, from which a single dispatch thread calls the listeners
+ * in order. When the buffer is full, a request waits up to the offer timeout
+ * for space and is then answered with 503 Service Unavailable and counted as
+ * dropped. The node does not retry callbacks, so dropped blocks should be
+ * caught up on with {@link NanoClient#getAccountHistory(String, Integer)} or
+ * similar.
+ * <p>
+ * The node is configured with callback_address, callback_port and
+ * callback_target in its config.json. The HTTP and dispatch threads are
+ * daemon threads, but the listener thread of the JDK's HTTP server is not, so
+ * the JVM keeps running until {@link #close()} is called.
+ */
+public class CallbackServer implements AutoCloseable {
+
+    // How long the dispatch thread sleeps when idle if it is not woken by a new block.
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    // How often a request retries while waiting for space in the buffer.
+    private static final long OFFER_RETRY_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final RingBuffer<BlockEvent> buffer;
+    private final BlockListener[] listeners;
+    private final long offerTimeoutNanos;
+    private final Thread dispatcher;
+    private final Gson gson = new GsonBuilder().setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES).create();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder malformed = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder listenerFailures = new LongAdder();
+    private volatile boolean idle;
+    private volatile boolean closed;
+
+    private CallbackServer(Builder builder) throws IOException {
+        this.buffer = new RingBuffer<>(builder.bufferSize);
+        this.listeners = builder.listeners.toArray(new BlockListener[0]);
+        this.offerTimeoutNanos = builder.offerTimeoutNanos;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(builder.threads, r -> {
+            Thread thread = new Thread(r, "nano-callback-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcher = new Thread(this::dispatch, "nano-callback-dispatch");
+        this.dispatcher.setDaemon(true);
+
+        this.server = HttpServer.create(builder.address, 0);
+        this.server.createContext(builder.path, this::handle);
+        this.server.setExecutor(executor);
+        this.dispatcher.start();
+        this.server.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the address the server is listening on, including the port
+     * chosen if it was started on port 0.
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * @return the number of blocks decoded, including those dropped.
+     */
+    public long getReceived() {
+        return received.sum();
+    }
+
+    /**
+     * @return the number of blocks refused because the buffer was full.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return the number of requests which could not be decoded.
+     */
+    public long getMalformed() {
+        return malformed.sum();
+    }
+
+    /**
+     * @return the number of blocks passed to the listeners.
+     */
+    public long getDelivered() {
+        return delivered.sum();
+    }
+
+    /**
+     * @return the number of times a listener threw an exception.
+     */
+    public long getListenerFailures() {
+        return listenerFailures.sum();
+    }
+
+    /**
+     * @return the number of blocks waiting to be passed to the listeners.
+     */
+    public int getQueued() {
+        return buffer.size();
+    }
+
+    /**
+     * Stops accepting callbacks. Blocks already in the buffer are still
+     * passed to the listeners.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+        closed = true;
+        LockSupport.unpark(dispatcher);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            BlockEvent event;
+            try (Reader reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+                event = BlockEvent.decode(gson, reader);
+            } catch (JsonParseException | IllegalStateException e) {
+                malformed.increment();
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            received.increment();
+            exchange.sendResponseHeaders(enqueue(event) ? 200 : 503, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private boolean enqueue(BlockEvent event) {
+        long deadline = System.nanoTime() + offerTimeoutNanos;
+        while (!buffer.offer(event)) {
+            if (closed || System.nanoTime() - deadline >= 0) {
+                dropped.increment();
+                return false;
+            }
+            LockSupport.parkNanos(OFFER_RETRY_NANOS);
+        }
+        if (idle) {
+            LockSupport.unpark(dispatcher);
+        }
+        return true;
+    }
+
+    private void dispatch() {
+        while (!closed) {
+            BlockEvent event = buffer.poll();
+            if (event != null) {
+                deliver(event);
+                continue;
+            }
+            idle = true;
+            // Checked again after announcing idleness, so a block offered meanwhile is not missed.
+            if (buffer.isEmpty() && !closed) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            idle = false;
+        }
+        BlockEvent event;
+        while ((event = buffer.poll()) != null) {
+            deliver(event);
+        }
+    }
+
+    private void deliver(BlockEvent event) {
+        for (BlockListener listener : listeners) {
+            try {
+                listener.blockReceived(event);
+            } catch (RuntimeException e) {
+                listenerFailures.increment();
+            }
+        }
+        delivered.increment();
+    }
+
+    public static class Builder {
+
+        private InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        private String path = "/";
+        private final List<BlockListener> listeners = new ArrayList<>();
+        private int bufferSize = 4096;
+        private long offerTimeoutNanos;
+        private int threads = 2;
+
+        Builder() {
+        }
+
+        /**
+         * @param port the port to listen on the loopback address, defaults to
+         *             a free port which can be read with {@link CallbackServer#getAddress()}.
+         */
+        public Builder port(int port) {
+            this.address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+            return this;
+        }
+
+        /**
+         * @param address the address to listen on, for when the node runs on another host.
+         */
+        public Builder address(InetSocketAddress address) {
+            this.address = address;
+            return this;
+        }
+
+        /**
+         * @param path the path configured as the node's callback_target, defaults to /.
+         */
+        public Builder path(String path) {
+            this.path = path;
+            return this;
+        }
+
+        /**
+         * Adds a listener to receive every block.
+         *
+         * @param listener the listener to add.
+         */
+        public Builder listener(BlockListener listener) {
+            this.listeners.add(listener);
+            return this;
+        }
+
+        /**
+         * @param bufferSize the number of blocks which can wait for the
+         *                   listeners, rounded up to a power of two. Defaults to 4096.
+         */
+        public Builder bufferSize(int bufferSize) {
+            if (bufferSize < 2 || bufferSize > 1 << 30) {
+                throw new IllegalArgumentException("bufferSize must be between 2 and 2^30");
+            }
+            this.bufferSize = Integer.bitCount(bufferSize) == 1 ? bufferSize : Integer.highestOneBit(bufferSize) << 1;
+            return this;
+        }
+
+        /**
+         * Sets how long a callback waits for space in a full buffer before
+         * it is dropped. Waiting slows the node's callbacks down rather than
+         * losing blocks during short bursts. Defaults to not waiting.
+         *
+         * @param timeout the time to wait.
+         * @param unit    the unit of timeout.
+         */
+        public Builder offerTimeout(long timeout, TimeUnit unit) {
+            this.offerTimeoutNanos = unit.toNanos(timeout);
+            return this;
+        }
+
+        /**
+         * @param threads the number of threads receiving and decoding callbacks, defaults to 2.
+         */
+        public Builder threads(int threads) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("threads must be at least 1");
+            }
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Starts the server.
+         *
+         * @throws IOException if the address cannot be bound.
+         */
+        public CallbackServer build() throws IOException {
+            return new CallbackServer(this);
+        }
+    }
+}
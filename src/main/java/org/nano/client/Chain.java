@@ -6,6 +6,13 @@ public class Chain extends BaseResponse {
 
     private List<String> blocks;
 
+    Chain() {
+    }
+
+    Chain(List<String> blocks) {
+        this.blocks = blocks;
+    }
+
     public List<String> getBlocks() {
         return blocks;
     }
@@ -0,0 +1,190 @@
+package org.nano.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Splits requests over large account lists into chunks which are sent in
+ * parallel, with a bound on how many are in flight at once, and merges the
+ * responses in the original order.
+ * <p>
+ * When a target latency is set the chunk size adapts per response type: it halves
+ * when a chunk takes longer than the target and doubles when a chunk takes
+ * less than half of it, staying within sixteen times either side of the
+ * initial size.
+ */
+class ChunkedExecutor {
+
+    private final NanoClient client;
+    private final int initialChunkSize;
+    private final int minChunkSize;
+    private final int maxChunkSize;
+    private final int maxConcurrency;
+    private final long targetLatencyNanos;
+    private final ConcurrentMap<Class<?>, AtomicInteger> chunkSizes = new ConcurrentHashMap<>();
+
+    /**
+     * @param targetLatencyNanos the latency to size chunks for, or 0 to keep a fixed chunk size.
+     */
+    ChunkedExecutor(NanoClient client, int chunkSize, int maxConcurrency, long targetLatencyNanos) {
+        if (chunkSize < 1 || maxConcurrency < 1) {
+            throw new IllegalArgumentException("chunkSize and maxConcurrency must be at least 1");
+        }
+        this.client = client;
+        this.initialChunkSize = chunkSize;
+        this.minChunkSize = Math.max(1, chunkSize / 16);
+        this.maxChunkSize = (int) Math.min(Integer.MAX_VALUE, chunkSize * 16L);
+        this.maxConcurrency = maxConcurrency;
+        this.targetLatencyNanos = targetLatencyNanos;
+    }
+
+    /**
+     * @param accounts the accounts to split.
+     * @param request  builds the request for a single chunk of accounts.
+     * @param clazz    the response type.
+     * @param empty    creates the response every chunk is merged into.
+     * @param merge    adds the second response to the first without modifying the second.
+     */
+    <T extends BaseResponse> CompletableFuture<T> execute(List<String> accounts,
+                                                          Function<List<String>, Request> request,
+                                                          Class<T> clazz,
+                                                          Supplier<T> empty,
+                                                          BiConsumer<T, T> merge) {
+        // The caller may reuse its list while chunks are still in flight.
+        List<String> copy = Collections.unmodifiableList(new ArrayList<>(accounts));
+        AtomicInteger chunkSize = chunkSize(clazz);
+        if (copy.size() <= chunkSize.get()) {
+            return client.requestAsync(request.apply(copy), clazz);
+        }
+        return new Execution<>(copy, request, clazz, empty, merge, chunkSize).start();
+    }
+
+    int currentChunkSize(Class<?> clazz) {
+        return chunkSize(clazz).get();
+    }
+
+    private AtomicInteger chunkSize(Class<?> clazz) {
+        AtomicInteger size = chunkSizes.get(clazz);
+        if (size == null) {
+            size = chunkSizes.computeIfAbsent(clazz, c -> new AtomicInteger(initialChunkSize));
+        }
+        return size;
+    }
+
+    private void adapt(AtomicInteger chunkSize, int used, long latencyNanos) {
+        if (targetLatencyNanos <= 0) {
+            return;
+        }
+        if (latencyNanos > targetLatencyNanos) {
+            chunkSize.compareAndSet(used, Math.max(minChunkSize, used / 2));
+        } else if (latencyNanos < targetLatencyNanos / 2) {
+            chunkSize.compareAndSet(used, (int) Math.min(maxChunkSize, used * 2L));
+        }
+    }
+
+    /**
+     * The state of a single chunked request. Chunks are cut from the list as
+     * they are launched so each one uses the latest chunk size.
+     */
+    private class Execution<T extends BaseResponse> {
+
+        private final List<String> accounts;
+        private final Function<List<String>, Request> request;
+        private final Class<T> clazz;
+        private final Supplier<T> empty;
+        private final BiConsumer<T, T> merge;
+        private final AtomicInteger chunkSize;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final Map<Integer, T> responses = new ConcurrentSkipListMap<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private int offset;
+        private int running;
+
+        Execution(List<String> accounts, Function<List<String>, Request> request, Class<T> clazz,
+                  Supplier<T> empty, BiConsumer<T, T> merge, AtomicInteger chunkSize) {
+            this.accounts = accounts;
+            this.request = request;
+            this.clazz = clazz;
+            this.empty = empty;
+            this.merge = merge;
+            this.chunkSize = chunkSize;
+        }
+
+        CompletableFuture<T> start() {
+            drain();
+            return result;
+        }
+
+        /**
+         * Launches chunks until the concurrency limit is reached. Completions
+         * which happen while draining, including synchronous ones, are picked
+         * up by the loop rather than recursing.
+         */
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                while (true) {
+                    int start;
+                    int end;
+                    synchronized (this) {
+                        if (result.isDone() || running >= maxConcurrency || offset >= accounts.size()) {
+                            break;
+                        }
+                        start = offset;
+                        end = Math.min(accounts.size(), start + chunkSize.get());
+                        offset = end;
+                        running++;
+                    }
+                    launch(start, end);
+                }
+            } while (wip.decrementAndGet() != 0);
+        }
+
+        private void launch(int start, int end) {
+            int size = end - start;
+            long begin = System.nanoTime();
+            client.requestAsync(request.apply(accounts.subList(start, end)), clazz).whenComplete((t, e) -> {
+                if (e != null) {
+                    result.completeExceptionally(Futures.unwrap(e));
+                    return;
+                }
+                adapt(chunkSize, size, System.nanoTime() - begin);
+                responses.put(start, t);
+                boolean finished;
+                synchronized (this) {
+                    running--;
+                    finished = running == 0 && offset >= accounts.size();
+                }
+                if (finished) {
+                    complete();
+                } else {
+                    drain();
+                }
+            });
+        }
+
+        /**
+         * Merges into a new response, as the chunk responses may be shared
+         * through the response cache or coalescing and must not be modified.
+         */
+        private void complete() {
+            T merged = empty.get();
+            for (T response : responses.values()) {
+                merge.accept(merged, response);
+            }
+            result.complete(merged);
+        }
+    }
+}
@@ -1,10 +0,0 @@
-package org.nano.client;
-
-class ConversionResponse extends BaseResponse {
-
-    private String amount;
-
-    public String getAmount() {
-        return amount;
-    }
-}
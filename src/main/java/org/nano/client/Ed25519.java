@@ -0,0 +1,491 @@
+package org.nano.client;
+
+import java.math.BigInteger;
+
+/**
+ * Ed25519 signatures as used by Nano, which replaces SHA-512 with Blake2b-512.
+ * <p>
+ * This is a port of the ed25519 code in TweetNaCl, the public domain
+ * implementation also used by Nano's reference wallets. Field elements are
+ * sixteen 16 bit limbs held in longs, and every operation which depends on
+ * a secret, namely base point multiplication and scalar reduction, runs in
+ * time independent of its value: the Montgomery ladder swaps points with
+ * masks rather than branches, and there are no secret dependent table
+ * lookups or early exits.
+ */
+final class Ed25519 {
+
+    static final int KEY_LENGTH = 32;
+    static final int SIGNATURE_LENGTH = 64;
+
+    private static final BigInteger P = BigInteger.ONE.shiftLeft(255).subtract(BigInteger.valueOf(19));
+
+    private static final long[] GF0 = new long[16];
+    private static final long[] GF1 = gf(BigInteger.ONE);
+    // -121665 / 121666, the curve constant, and twice it.
+    private static final long[] D = gf(BigInteger.valueOf(-121665).multiply(BigInteger.valueOf(121666).modInverse(P)).mod(P));
+    private static final long[] D2 = gf(BigInteger.valueOf(-121665).multiply(BigInteger.valueOf(121666).modInverse(P)).shiftLeft(1).mod(P));
+    // The affine coordinates of the base point.
+    private static final long[] X = gf(new BigInteger("15112221349535400772501151409588531511454012693041857206046113283949847762202"));
+    private static final long[] Y = gf(BigInteger.valueOf(4).multiply(BigInteger.valueOf(5).modInverse(P)).mod(P));
+    // A square root of -1.
+    private static final long[] I = gf(BigInteger.valueOf(2).modPow(P.subtract(BigInteger.ONE).shiftRight(2), P));
+
+    // The order of the base point, little endian.
+    private static final long[] L = {
+        0xed, 0xd3, 0xf5, 0x5c, 0x1a, 0x63, 0x12, 0x58, 0xd6, 0x9c, 0xf7, 0xa2, 0xde, 0xf9, 0xde, 0x14,
+        0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0x10
+    };
+
+    private Ed25519() {
+    }
+
+    /**
+     * Holds the values derived from a private key which are needed to sign.
+     */
+    static final class ExpandedKey {
+
+        private final byte[] scalar;
+        private final byte[] prefix;
+        private final byte[] publicKey;
+
+        private ExpandedKey(byte[] scalar, byte[] prefix, byte[] publicKey) {
+            this.scalar = scalar;
+            this.prefix = prefix;
+            this.publicKey = publicKey;
+        }
+
+        byte[] getPublicKey() {
+            return publicKey.clone();
+        }
+    }
+
+    static ExpandedKey expand(byte[] privateKey) {
+        if (privateKey.length != KEY_LENGTH) {
+            throw new IllegalArgumentException("Private key must be " + KEY_LENGTH + " bytes");
+        }
+        byte[] d = blake2b512(privateKey);
+        d[0] &= (byte) 248;
+        d[31] &= 127;
+        d[31] |= 64;
+        byte[] scalar = new byte[32];
+        byte[] prefix = new byte[32];
+        System.arraycopy(d, 0, scalar, 0, 32);
+        System.arraycopy(d, 32, prefix, 0, 32);
+
+        long[][] p = point();
+        scalarBase(p, scalar);
+        byte[] publicKey = new byte[32];
+        pack(publicKey, p);
+        return new ExpandedKey(scalar, prefix, publicKey);
+    }
+
+    static byte[] sign(byte[] message, ExpandedKey key) {
+        byte[] r = blake2b512(key.prefix, message);
+        reduce(r);
+        long[][] p = point();
+        scalarBase(p, r);
+        byte[] signature = new byte[SIGNATURE_LENGTH];
+        pack(signature, p);
+
+        byte[] encodedR = new byte[32];
+        System.arraycopy(signature, 0, encodedR, 0, 32);
+        byte[] h = blake2b512(encodedR, key.publicKey, message);
+        reduce(h);
+
+        long[] x = new long[64];
+        for (int i = 0; i < 32; i++) {
+            x[i] = r[i] & 0xff;
+        }
+        for (int i = 0; i < 32; i++) {
+            for (int j = 0; j < 32; j++) {
+                x[i + j] += (h[i] & 0xff) * (long) (key.scalar[j] & 0xff);
+            }
+        }
+        modL(signature, 32, x);
+        return signature;
+    }
+
+    static boolean verify(byte[] message, byte[] signature, byte[] publicKey) {
+        if (signature.length != SIGNATURE_LENGTH || publicKey.length != KEY_LENGTH || !isReduced(signature)) {
+            return false;
+        }
+        long[][] q = point();
+        if (!unpackNegative(q, publicKey)) {
+            return false;
+        }
+        byte[] encodedR = new byte[32];
+        System.arraycopy(signature, 0, encodedR, 0, 32);
+        byte[] h = blake2b512(encodedR, publicKey, message);
+        reduce(h);
+
+        // s * B - h * A must equal R.
+        long[][] p = point();
+        scalarMult(p, q, h);
+        byte[] s = new byte[32];
+        System.arraycopy(signature, 32, s, 0, 32);
+        scalarBase(q, s);
+        add(p, q);
+        byte[] t = new byte[32];
+        pack(t, p);
+        return verify32(encodedR, t);
+    }
+
+    /**
+     * Rejects signatures whose s is not below L, so that a signature cannot
+     * be altered into another valid one.
+     */
+    private static boolean isReduced(byte[] signature) {
+        for (int i = 31; i >= 0; i--) {
+            int s = signature[32 + i] & 0xff;
+            if (s != L[i]) {
+                return s < L[i];
+            }
+        }
+        return false;
+    }
+
+    private static long[][] point() {
+        return new long[4][16];
+    }
+
+    private static long[] gf(BigInteger value) {
+        byte[] bigEndian = value.toByteArray();
+        byte[] littleEndian = new byte[32];
+        for (int i = 0; i < 32 && i < bigEndian.length; i++) {
+            littleEndian[i] = bigEndian[bigEndian.length - 1 - i];
+        }
+        long[] o = new long[16];
+        unpack25519(o, littleEndian);
+        return o;
+    }
+
+    // region Field arithmetic modulo 2^255 - 19
+
+    private static void set25519(long[] r, long[] a) {
+        System.arraycopy(a, 0, r, 0, 16);
+    }
+
+    private static void car25519(long[] o) {
+        for (int i = 0; i < 16; i++) {
+            o[i] += 1L << 16;
+            long c = o[i] >> 16;
+            if (i < 15) {
+                o[i + 1] += c - 1;
+            } else {
+                o[0] += 38 * (c - 1);
+            }
+            o[i] -= c << 16;
+        }
+    }
+
+    /**
+     * Swaps p and q if b is 1 and leaves them if b is 0, without branching.
+     */
+    private static void sel25519(long[] p, long[] q, int b) {
+        long c = ~(b - 1);
+        for (int i = 0; i < 16; i++) {
+            long t = c & (p[i] ^ q[i]);
+            p[i] ^= t;
+            q[i] ^= t;
+        }
+    }
+
+    private static void pack25519(byte[] o, int offset, long[] n) {
+        long[] m = new long[16];
+        long[] t = n.clone();
+        car25519(t);
+        car25519(t);
+        car25519(t);
+        for (int j = 0; j < 2; j++) {
+            m[0] = t[0] - 0xffed;
+            for (int i = 1; i < 15; i++) {
+                m[i] = t[i] - 0xffff - ((m[i - 1] >> 16) & 1);
+                m[i - 1] &= 0xffff;
+            }
+            m[15] = t[15] - 0x7fff - ((m[14] >> 16) & 1);
+            int b = (int) ((m[15] >> 16) & 1);
+            m[14] &= 0xffff;
+            sel25519(t, m, 1 - b);
+        }
+        for (int i = 0; i < 16; i++) {
+            o[offset + 2 * i] = (byte) t[i];
+            o[offset + 2 * i + 1] = (byte) (t[i] >> 8);
+        }
+    }
+
+    private static boolean neq25519(long[] a, long[] b) {
+        byte[] c = new byte[32];
+        byte[] d = new byte[32];
+        pack25519(c, 0, a);
+        pack25519(d, 0, b);
+        return !verify32(c, d);
+    }
+
+    private static int par25519(long[] a) {
+        byte[] d = new byte[32];
+        pack25519(d, 0, a);
+        return d[0] & 1;
+    }
+
+    private static void unpack25519(long[] o, byte[] n) {
+        for (int i = 0; i < 16; i++) {
+            o[i] = (n[2 * i] & 0xff) + ((long) (n[2 * i + 1] & 0xff) << 8);
+        }
+        o[15] &= 0x7fff;
+    }
+
+    private static void add25519(long[] o, long[] a, long[] b) {
+        for (int i = 0; i < 16; i++) {
+            o[i] = a[i] + b[i];
+        }
+    }
+
+    private static void subtract25519(long[] o, long[] a, long[] b) {
+        for (int i = 0; i < 16; i++) {
+            o[i] = a[i] - b[i];
+        }
+    }
+
+    private static void multiply25519(long[] o, long[] a, long[] b) {
+        long[] t = new long[31];
+        for (int i = 0; i < 16; i++) {
+            for (int j = 0; j < 16; j++) {
+                t[i + j] += a[i] * b[j];
+            }
+        }
+        for (int i = 0; i < 15; i++) {
+            t[i] += 38 * t[i + 16];
+        }
+        System.arraycopy(t, 0, o, 0, 16);
+        car25519(o);
+        car25519(o);
+    }
+
+    private static void square25519(long[] o, long[] a) {
+        multiply25519(o, a, a);
+    }
+
+    private static void invert25519(long[] o, long[] i) {
+        long[] c = i.clone();
+        for (int a = 253; a >= 0; a--) {
+            square25519(c, c);
+            if (a != 2 && a != 4) {
+                multiply25519(c, c, i);
+            }
+        }
+        set25519(o, c);
+    }
+
+    private static void pow2523(long[] o, long[] i) {
+        long[] c = i.clone();
+        for (int a = 250; a >= 0; a--) {
+            square25519(c, c);
+            if (a != 1) {
+                multiply25519(c, c, i);
+            }
+        }
+        set25519(o, c);
+    }
+
+    // endregion
+
+    // region Group operations in extended coordinates
+
+    private static void add(long[][] p, long[][] q) {
+        long[] a = new long[16];
+        long[] b = new long[16];
+        long[] c = new long[16];
+        long[] d = new long[16];
+        long[] t = new long[16];
+        long[] e = new long[16];
+        long[] f = new long[16];
+        long[] g = new long[16];
+        long[] h = new long[16];
+
+        subtract25519(a, p[1], p[0]);
+        subtract25519(t, q[1], q[0]);
+        multiply25519(a, a, t);
+        add25519(b, p[0], p[1]);
+        add25519(t, q[0], q[1]);
+        multiply25519(b, b, t);
+        multiply25519(c, p[3], q[3]);
+        multiply25519(c, c, D2);
+        multiply25519(d, p[2], q[2]);
+        add25519(d, d, d);
+        subtract25519(e, b, a);
+        subtract25519(f, d, c);
+        add25519(g, d, c);
+        add25519(h, b, a);
+
+        multiply25519(p[0], e, f);
+        multiply25519(p[1], h, g);
+        multiply25519(p[2], g, f);
+        multiply25519(p[3], e, h);
+    }
+
+    private static void cswap(long[][] p, long[][] q, int b) {
+        for (int i = 0; i < 4; i++) {
+            sel25519(p[i], q[i], b);
+        }
+    }
+
+    private static void pack(byte[] r, long[][] p) {
+        long[] tx = new long[16];
+        long[] ty = new long[16];
+        long[] zi = new long[16];
+        invert25519(zi, p[2]);
+        multiply25519(tx, p[0], zi);
+        multiply25519(ty, p[1], zi);
+        pack25519(r, 0, ty);
+        r[31] ^= (byte) (par25519(tx) << 7);
+    }
+
+    /**
+     * Sets p to s times q. Every bit of s costs one addition and one
+     * doubling, whatever its value.
+     */
+    private static void scalarMult(long[][] p, long[][] q, byte[] s) {
+        set25519(p[0], GF0);
+        set25519(p[1], GF1);
+        set25519(p[2], GF1);
+        set25519(p[3], GF0);
+        for (int i = 255; i >= 0; i--) {
+            int b = (s[i >>> 3] >>> (i & 7)) & 1;
+            cswap(p, q, b);
+            add(q, p);
+            add(p, p);
+            cswap(p, q, b);
+        }
+    }
+
+    private static void scalarBase(long[][] p, byte[] s) {
+        long[][] q = point();
+        set25519(q[0], X);
+        set25519(q[1], Y);
+        set25519(q[2], GF1);
+        multiply25519(q[3], X, Y);
+        scalarMult(p, q, s);
+    }
+
+    /**
+     * Decodes a public key into the negation of its point.
+     *
+     * @return false if the key is not a point on the curve.
+     */
+    private static boolean unpackNegative(long[][] r, byte[] p) {
+        long[] t = new long[16];
+        long[] chk = new long[16];
+        long[] num = new long[16];
+        long[] den = new long[16];
+        long[] den2 = new long[16];
+        long[] den4 = new long[16];
+        long[] den6 = new long[16];
+
+        set25519(r[2], GF1);
+        unpack25519(r[1], p);
+        square25519(num, r[1]);
+        multiply25519(den, num, D);
+        subtract25519(num, num, r[2]);
+        add25519(den, r[2], den);
+
+        square25519(den2, den);
+        square25519(den4, den2);
+        multiply25519(den6, den4, den2);
+        multiply25519(t, den6, num);
+        multiply25519(t, t, den);
+
+        pow2523(t, t);
+        multiply25519(t, t, num);
+        multiply25519(t, t, den);
+        multiply25519(t, t, den);
+        multiply25519(r[0], t, den);
+
+        square25519(chk, r[0]);
+        multiply25519(chk, chk, den);
+        if (neq25519(chk, num)) {
+            multiply25519(r[0], r[0], I);
+        }
+
+        square25519(chk, r[0]);
+        multiply25519(chk, chk, den);
+        if (neq25519(chk, num)) {
+            return false;
+        }
+
+        if (par25519(r[0]) == ((p[31] & 0xff) >>> 7)) {
+            subtract25519(r[0], GF0, r[0]);
+        }
+        multiply25519(r[3], r[0], r[1]);
+        return true;
+    }
+
+    // endregion
+
+    // region Scalar arithmetic modulo L
+
+    /**
+     * Reduces the 64 byte little endian number x modulo L into 32 bytes of r.
+     */
+    private static void modL(byte[] r, int offset, long[] x) {
+        long carry;
+        for (int i = 63; i >= 32; i--) {
+            carry = 0;
+            int j;
+            for (j = i - 32; j < i - 12; j++) {
+                x[j] += carry - 16 * x[i] * L[j - (i - 32)];
+                carry = (x[j] + 128) >> 8;
+                x[j] -= carry << 8;
+            }
+            x[j] += carry;
+            x[i] = 0;
+        }
+        carry = 0;
+        for (int j = 0; j < 32; j++) {
+            x[j] += carry - (x[31] >> 4) * L[j];
+            carry = x[j] >> 8;
+            x[j] &= 255;
+        }
+        for (int j = 0; j < 32; j++) {
+            x[j] -= carry * L[j];
+        }
+        for (int i = 0; i < 32; i++) {
+            x[i + 1] += x[i] >> 8;
+            r[offset + i] = (byte) x[i];
+        }
+    }
+
+    /**
+     * Reduces a 64 byte digest modulo L in place, leaving the result in its
+     * first 32 bytes.
+     */
+    private static void reduce(byte[] r) {
+        long[] x = new long[64];
+        for (int i = 0; i < 64; i++) {
+            x[i] = r[i] & 0xff;
+            r[i] = 0;
+        }
+        modL(r, 0, x);
+    }
+
+    // endregion
+
+    /**
+     * Compares 32 bytes in constant time.
+     */
+    private static boolean verify32(byte[] x, byte[] y) {
+        int d = 0;
+        for (int i = 0; i < 32; i++) {
+            d |= x[i] ^ y[i];
+        }
+        return d == 0;
+    }
+
+    private static byte[] blake2b512(byte[]... inputs) {
+        Blake2b blake2b = new Blake2b(64);
+        for (byte[] input : inputs) {
+            blake2b.update(input);
+        }
+        return blake2b.digest();
+    }
+}
@@ -0,0 +1,36 @@
+package org.nano.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Helpers for working with {@link CompletableFuture}s.
+ */
+final class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * Strips the {@link CompletionException} which dependent futures wrap
+     * their failures in.
+     */
+    static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    /**
+     * Waits for the future and rethrows a runtime failure, such as a
+     * {@link NanoException}, as is rather than wrapped.
+     */
+    static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
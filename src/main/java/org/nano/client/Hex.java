@@ -0,0 +1,73 @@
+package org.nano.client;
+
+/**
+ * Upper case hexadecimal encoding, as used by the node for keys and hashes.
+ */
+final class Hex {
+
+    private static final char[] DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private Hex() {
+    }
+
+    static String encode(byte[] bytes) {
+        return encode(bytes, 0, bytes.length);
+    }
+
+    static String encode(byte[] bytes, int offset, int length) {
+        char[] chars = new char[length << 1];
+        for (int i = 0; i < length; i++) {
+            int b = bytes[offset + i] & 0xFF;
+            chars[i << 1] = DIGITS[b >>> 4];
+            chars[(i << 1) + 1] = DIGITS[b & 0xF];
+        }
+        return new String(chars);
+    }
+
+    static byte[] decode(CharSequence hex) {
+        byte[] bytes = new byte[hex.length() >> 1];
+        if (!decode(hex, bytes, 0, bytes.length)) {
+            throw new IllegalArgumentException("Invalid hex: " + hex);
+        }
+        return bytes;
+    }
+
+    /**
+     * Decodes exactly length bytes into out.
+     *
+     * @return false if hex is not 2 * length hexadecimal digits.
+     */
+    static boolean decode(CharSequence hex, byte[] out, int offset, int length) {
+        if (hex == null || hex.length() != length << 1) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            int high = digit(hex.charAt(i << 1));
+            int low = digit(hex.charAt((i << 1) + 1));
+            if (high < 0 || low < 0) {
+                return false;
+            }
+            out[offset + i] = (byte) ((high << 4) | low);
+        }
+        return true;
+    }
+
+    /**
+     * Unlike {@link Character#digit(char, int)}, only accepts ASCII digits,
+     * as the node does.
+     *
+     * @return the value of a hexadecimal digit, or -1 if c is not one.
+     */
+    static int digit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+}
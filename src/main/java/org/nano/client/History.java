@@ -6,6 +6,7 @@ public class History {
     private String type;
     private String account;
     private String amount;
+    private transient Raw amountRaw;
 
     public String getHash() {
         return hash;
@@ -22,4 +23,11 @@ public class History {
     public String getAmount() {
         return amount;
     }
+
+    /**
+     * @return the amount as a {@link Raw} amount, parsed on first use.
+     */
+    public Raw getAmountRaw() {
+        return amountRaw = Raw.parseIfAbsent(amountRaw, amount);
+    }
 }
@@ -1,28 +1,70 @@
 package org.nano.client;
 
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.RequestBody;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 class HttpClient {
 
-    private final OkHttpClient client = new OkHttpClient();
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    private final OkHttpClient client;
     private final String host;
 
     HttpClient(String host) {
+        this(host, new OkHttpClient());
+    }
+
+    HttpClient(String host, OkHttpClient client) {
         this.host = host;
+        this.client = client;
+    }
+
+    /**
+     * Posts the body and returns the unread response body. The caller is
+     * responsible for closing it, which allows the payload to be decoded
+     * directly from the socket rather than buffered into a string first.
+     */
+    ResponseBody post(String body) throws IOException {
+        Response response = client.newCall(request(body)).execute();
+        return response.body();
     }
 
-    String post(String body) throws IOException {
-        okhttp3.Request request = new okhttp3.Request.Builder()
-            .post(RequestBody.create(MediaType.parse("application/json"), body))
+    /**
+     * Posts the body without blocking the caller. The call is queued on the
+     * OkHttp dispatcher and the returned future is completed from its thread
+     * pool as soon as the response headers arrive. As with {@link #post(String)}
+     * the caller must close the response body.
+     */
+    CompletableFuture<ResponseBody> postAsync(String body) {
+        CompletableFuture<ResponseBody> future = new CompletableFuture<>();
+        client.newCall(request(body)).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                if (!future.complete(response.body())) {
+                    response.close();
+                }
+            }
+        });
+        return future;
+    }
+
+    private okhttp3.Request request(String body) {
+        return new okhttp3.Request.Builder()
+            .post(RequestBody.create(JSON, body))
             .url(host)
             .build();
-
-        Response response = client.newCall(request).execute();
-        return response.body().string();
     }
 }
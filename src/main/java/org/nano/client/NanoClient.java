@@ -3,15 +3,39 @@ package org.nano.client;
 import com.google.gson.FieldNamingPolicy;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.ResponseBody;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public class NanoClient {
 
     private static final String DEFAULT_HOST = "http://localhost:7076";
 
-    private final HttpClient client;
+    private final NodePool nodes;
+    private final RpcListener listener;
+    private final RetryPolicy retryPolicy;
+    private final SingleFlight singleFlight;
+    private final ResponseCache responseCache;
+    private final BlockCache blockCache;
+    private final BalanceBatcher balanceBatcher;
+    private final ChunkedExecutor chunkedExecutor;
+    private final boolean localAddressCodec;
+    private final boolean localWorkValidation;
+    private final WorkPrecache workPrecache;
+    private final AsyncNanoClient calls;
     private final Gson gson = new GsonBuilder().setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES).create();
 
     public NanoClient() {
@@ -23,7 +47,40 @@ public class NanoClient {
     }
 
     NanoClient(HttpClient client) {
-        this.client = client;
+        this(client, RpcListener.NONE);
+    }
+
+    NanoClient(HttpClient client, RpcListener listener) {
+        this(builder().listener(listener), new NodePool(Collections.singletonList(client), false));
+    }
+
+    private NanoClient(Builder builder, NodePool nodes) {
+        this.nodes = nodes;
+        this.listener = RpcListener.of(builder.listeners);
+        this.retryPolicy = builder.retryPolicy;
+        this.singleFlight = builder.coalesceReads ? new SingleFlight() : null;
+        this.responseCache = builder.responseCache;
+        this.blockCache = builder.blockCache;
+        this.balanceBatcher = builder.balanceBatchSize > 0
+            ? new BalanceBatcher(this, builder.balanceBatchSize, builder.balanceBatchWindowNanos)
+            : null;
+        this.chunkedExecutor = builder.chunkSize > 0
+            ? new ChunkedExecutor(this, builder.chunkSize, builder.chunkConcurrency, builder.chunkTargetLatencyNanos)
+            : null;
+        this.localAddressCodec = builder.localAddressCodec;
+        this.localWorkValidation = builder.localWorkValidation;
+        this.workPrecache = builder.workPrecache;
+        this.calls = new AsyncNanoClient(this, true);
+        if (workPrecache != null) {
+            workPrecache.start(this);
+        }
+    }
+
+    /**
+     * Returns a builder for configuring the transport used by the client.
+     */
+    public static Builder builder() {
+        return new Builder();
     }
 
     // region Account Methods
@@ -34,13 +91,7 @@ public class NanoClient {
      * @param account the address of the account
      */
     public Balance getAccountBalance(String account) {
-        Request request = Request.action("account_balance")
-            .param("account", account)
-            .build();
-
-        Balance balance = request(request, Balance.class);
-        balance.setAccount(account);
-        return balance;
+        return Futures.join(calls.getAccountBalance(account));
     }
 
     /**
@@ -49,11 +100,7 @@ public class NanoClient {
      * @param account the address of the account
      */
     public AccountBlockCount getAccountBlockCount(String account) {
-        Request request = Request.action("account_block_count")
-            .param("account", account)
-            .build();
-
-        return request(request, AccountBlockCount.class);
+        return Futures.join(calls.getAccountBlockCount(account));
     }
 
     /**
@@ -64,7 +111,7 @@ public class NanoClient {
      * @see NanoClient#getAccountInformation(String, boolean, boolean, boolean)
      */
     public AccountInformation getAccountInformation(String account) {
-        return getAccountInformation(account, false, false, false);
+        return Futures.join(calls.getAccountInformation(account));
     }
 
     /**
@@ -84,13 +131,7 @@ public class NanoClient {
                                                     boolean representative,
                                                     boolean weight,
                                                     boolean pending) {
-        Request request = Request.action("account_info")
-            .param("account", account)
-            .param("representative", representative)
-            .param("weight", weight)
-            .param("pending", pending)
-            .build();
-        return request(request, AccountInformation.class);
+        return Futures.join(calls.getAccountInformation(account, representative, weight, pending));
     }
 
     /**
@@ -102,7 +143,7 @@ public class NanoClient {
      * @return the address of the new account.
      */
     public AccountCreate createAccount(String wallet) {
-        return createAccount(wallet, true);
+        return Futures.join(calls.createAccount(wallet));
     }
 
     /**
@@ -118,26 +159,20 @@ public class NanoClient {
      * @return the address of the new account.
      */
     public AccountCreate createAccount(String wallet, boolean work) {
-        Request request = Request.action("account_create")
-            .param("wallet", wallet)
-            .param("work", work)
-            .build();
-
-        return request(request, AccountCreate.class);
+        return Futures.join(calls.createAccount(wallet, work));
     }
 
     /**
      * Get account number for the public key.
+     * <p>
+     * The address is calculated locally unless disabled with
+     * {@link Builder#localAddressCodec(boolean)}.
      *
      * @param publicKey the public key for an account.
      * @return the address of the associated account.
      */
     public AccountGet getAccount(String publicKey) {
-        Request request = Request.action("account_get")
-            .param("key", publicKey)
-            .build();
-
-        return request(request, AccountGet.class);
+        return Futures.join(calls.getAccount(publicKey));
     }
 
     /**
@@ -148,12 +183,27 @@ public class NanoClient {
      * @return the history for the account.
      */
     public AccountHistory getAccountHistory(String account, Integer count) {
-        Request request = Request.action("account_history")
-            .param("account", account)
-            .param("count", count)
-            .build();
+        return Futures.join(calls.getAccountHistory(account, count));
+    }
 
-        return request(request, AccountHistory.class);
+    /**
+     * Lazily reads the whole history of an account, newest first, in pages
+     * of pageSize entries. Each page is requested from where the one before
+     * ended, and is fetched in the background while the page before it is
+     * consumed, so memory use does not grow with the length of the history.
+     * <p>
+     * The stream should be closed if it is not read to the end. Failures are
+     * thrown as {@link NanoException}s while it is read.
+     *
+     * @param account  the account address.
+     * @param pageSize the number of entries to request at a time.
+     * @return the history for the account.
+     */
+    public Stream<History> streamAccountHistory(String account, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be at least 1");
+        }
+        return new PrefetchingIterator<History>(null, head -> historyPage(account, pageSize, head)).stream();
     }
 
     /**
@@ -163,11 +213,7 @@ public class NanoClient {
      * @return the list of accounts.
      */
     public AccountList getAccountList(String wallet) {
-        Request request = Request.action("account_list")
-            .param("wallet", wallet)
-            .build();
-
-        return request(request, AccountList.class);
+        return Futures.join(calls.getAccountList(wallet));
     }
 
     /**
@@ -181,27 +227,20 @@ public class NanoClient {
      * @return the number of accounts moved.
      */
     public AccountMove moveAccounts(String from, String to, List<String> accounts) {
-        Request request = Request.action("account_move")
-            .param("source", from)
-            .param("wallet", to)
-            .param("accounts", accounts)
-            .build();
-
-        return request(request, AccountMove.class);
+        return Futures.join(calls.moveAccounts(from, to, accounts));
     }
 
     /**
      * Get the public key for an account.
+     * <p>
+     * The key is calculated locally unless disabled with
+     * {@link Builder#localAddressCodec(boolean)}.
      *
      * @param account the account to retrieve the public key for.
      * @return the account's public key.
      */
     public AccountPublicKey getAccountPublicKey(String account) {
-        Request request = Request.action("account_key")
-            .param("account", account)
-            .build();
-
-        return request(request, AccountPublicKey.class);
+        return Futures.join(calls.getAccountPublicKey(account));
     }
 
     /**
@@ -214,12 +253,7 @@ public class NanoClient {
      * @return the number of accounts removed (1 for successful, 0 for unsuccessful).
      */
     public AccountRemove removeAccount(String wallet, String account) {
-        Request request = Request.action("account_remove")
-            .param("account", account)
-            .param("wallet", wallet)
-            .build();
-
-        return request(request, AccountRemove.class);
+        return Futures.join(calls.removeAccount(wallet, account));
     }
 
     /**
@@ -229,11 +263,7 @@ public class NanoClient {
      * @return the account's representative.
      */
     public AccountRepresentative getAccountRepresentative(String account) {
-        Request request = Request.action("account_representative")
-            .param("account", account)
-            .build();
-
-        return request(request, AccountRepresentative.class);
+        return Futures.join(calls.getAccountRepresentative(account));
     }
 
     /**
@@ -248,13 +278,7 @@ public class NanoClient {
      * TODO: Add the optional work parameter
      */
     public AccountRepresentativeSet setAccountRepresentative(String wallet, String account, String representative) {
-        Request request = Request.action("account_representative_set")
-            .param("wallet", wallet)
-            .param("account", account)
-            .param("representative", representative)
-            .build();
-
-        return request(request, AccountRepresentativeSet.class);
+        return Futures.join(calls.setAccountRepresentative(wallet, account, representative));
     }
 
     /**
@@ -264,11 +288,7 @@ public class NanoClient {
      * @return the account's voting weight.
      */
     public AccountWeight getAccountWeight(String account) {
-        Request request = Request.action("account_weight")
-            .param("account", account)
-            .build();
-
-        return request(request, AccountWeight.class);
+        return Futures.join(calls.getAccountWeight(account));
     }
 
     /**
@@ -278,11 +298,7 @@ public class NanoClient {
      * @return the balances for each account.
      */
     public Balances getAccountBalances(List<String> accounts) {
-        Request request = Request.action("accounts_balances")
-            .param("accounts", accounts)
-            .build();
-
-        return request(request, Balances.class);
+        return Futures.join(calls.getAccountBalances(accounts));
     }
 
     /**
@@ -295,7 +311,7 @@ public class NanoClient {
      * @return the created accounts.
      */
     public AccountsCreate createAccounts(String wallet, Integer count) {
-        return createAccounts(wallet, count, true);
+        return Futures.join(calls.createAccounts(wallet, count));
     }
 
     /**
@@ -311,13 +327,7 @@ public class NanoClient {
      * @return the created accounts.
      */
     public AccountsCreate createAccounts(String wallet, Integer count, boolean work) {
-        Request request = Request.action("accounts_create")
-            .param("wallet", wallet)
-            .param("count", count)
-            .param("work", work)
-            .build();
-
-        return request(request, AccountsCreate.class);
+        return Futures.join(calls.createAccounts(wallet, count, work));
     }
 
     /**
@@ -328,11 +338,7 @@ public class NanoClient {
      * @return the starting block for each account.
      */
     public AccountsFrontiers getAccountsFrontiers(List<String> accounts) {
-        Request request = Request.action("accounts_frontiers")
-            .param("accounts", accounts)
-            .build();
-
-        return request(request, AccountsFrontiers.class);
+        return Futures.join(calls.getAccountsFrontiers(accounts));
     }
 
     /**
@@ -344,12 +350,7 @@ public class NanoClient {
      * TODO: Add the optional parameters to this method (threshold and source)
      */
     public AccountsPending getAccountsPending(List<String> accounts, Integer count) {
-        Request request = Request.action("accounts_pending")
-            .param("accounts", accounts)
-            .param("count", count)
-            .build();
-
-        return request(request, AccountsPending.class);
+        return Futures.join(calls.getAccountsPending(accounts, count));
     }
 
     // endregion
@@ -358,47 +359,77 @@ public class NanoClient {
 
     /**
      * Returns the account for an associated block.
+     * <p>
+     * When a {@link BlockCache} is configured, blocks looked up before are
+     * answered without contacting the node.
      *
      * @param hash the hash of the block.
      * @return the account number.
      */
     public BlockAccount getBlockAccount(String hash) {
-        Request request = Request.action("block_account")
-            .param("hash", hash)
-            .build();
-
-        return request(request, BlockAccount.class);
+        return Futures.join(calls.getBlockAccount(hash));
     }
 
     /**
      * Reports the number of blocks in the ledger and unchecked synchronizing blocks.
      */
     public BlockCount getBlockCount() {
-        Request request = Request.action("block_count").build();
-        return request(request, BlockCount.class);
+        return Futures.join(calls.getBlockCount());
     }
 
     /**
      * Reports the number of blocks in the ledger by type (send, receive, open, change).
      */
     public BlockCountType getBlockCountType() {
-        Request request = Request.action("block_count_type").build();
-        return request(request, BlockCountType.class);
+        return Futures.join(calls.getBlockCountType());
     }
 
     /**
      * Returns a list of block hashes in the account chain starting at block up to count.
+     * <p>
+     * When a {@link BlockCache} is configured, the part of the chain walked
+     * before is answered locally and only the remainder is requested.
      *
      * @param block the block to start at.
      * @param count the number of blocks to return.
      */
     public Chain getChain(String block, Integer count) {
-        Request request = Request.action("chain")
-            .param("block", block)
-            .param("count", count)
-            .build();
+        return Futures.join(calls.getChain(block, count));
+    }
+
+    /**
+     * Lazily walks an account chain from a block back to the open block, in
+     * segments of segmentSize blocks. The next segment is fetched in the
+     * background while the current one is consumed, and nothing further is
+     * requested once the caller stops reading. Segments are served from the
+     * {@link BlockCache} when one is configured.
+     * <p>
+     * The stream should be closed if it is not read to the end. Failures are
+     * thrown as {@link NanoException}s while it is read.
+     *
+     * @param block       the block to start at.
+     * @param segmentSize the number of blocks to request at a time.
+     * @return the block hashes, starting with block itself.
+     */
+    public Stream<String> streamChain(String block, int segmentSize) {
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("segmentSize must be at least 1");
+        }
+        AsyncNanoClient async = new AsyncNanoClient(this);
+        return new PrefetchingIterator<String>(block, start -> async.getChain(start, fetchCount(segmentSize))
+            .thenApply(chain -> chainSegment(chain, segmentSize))).stream();
+    }
 
-        return request(request, Chain.class);
+    /**
+     * Publishes a block to the network, such as one built locally with
+     * {@link StateBlock} and signed with a {@link Signer}. The block must
+     * already carry its signature and work.
+     *
+     * @param block the block to publish.
+     * @return the hash of the published block.
+     */
+    public ProcessedBlock process(StateBlock block) {
+        return Futures.join(calls.process(block));
     }
 
     // endregion
@@ -407,86 +438,127 @@ public class NanoClient {
 
     /**
      * Divide a raw amount down by the Mrai ratio.
+     * <p>
+     * This is calculated locally without contacting the node.
      *
      * @param raw the amount in raw.
      * @return the amount in Mrai.
+     * @see Unit#fromRaw(String)
      */
     public String mraiFromRaw(String raw) {
-        Request request = Request.action("mrai_from_raw")
-            .param("amount", raw)
-            .build();
+        return convert(Unit.MRAI::fromRaw, raw);
+    }
 
-        return request(request, ConversionResponse.class).getAmount();
+    /**
+     * Divide a raw amount down by the Mrai ratio, keeping any fraction.
+     * <p>
+     * This is calculated locally without contacting the node.
+     *
+     * @param raw the amount in raw.
+     * @return the exact amount in Mrai.
+     * @see Unit#fromRawExact(String)
+     */
+    public String mraiFromRawExact(String raw) {
+        return convert(Unit.MRAI::fromRawExact, raw);
     }
 
     /**
      * Multiply an Mrai amount by the Mrai ratio.
+     * <p>
+     * This is calculated locally without contacting the node.
      *
      * @param mrai the amount in Mrai.
      * @return the amount in raw.
+     * @see Unit#toRaw(String)
      */
     public String mraiToRaw(String mrai) {
-        Request request = Request.action("mrai_to_raw")
-            .param("amount", mrai)
-            .build();
-
-        return request(request, ConversionResponse.class).getAmount();
+        return convert(Unit.MRAI::toRaw, mrai);
     }
 
     /**
      * Divide a raw amount down by the krai ratio.
+     * <p>
+     * This is calculated locally without contacting the node.
      *
      * @param raw the amount in raw.
      * @return the amount in krai.
+     * @see Unit#fromRaw(String)
      */
     public String kraiFromRaw(String raw) {
-        Request request = Request.action("krai_from_raw")
-            .param("amount", raw)
-            .build();
+        return convert(Unit.KRAI::fromRaw, raw);
+    }
 
-        return request(request, ConversionResponse.class).getAmount();
+    /**
+     * Divide a raw amount down by the krai ratio, keeping any fraction.
+     * <p>
+     * This is calculated locally without contacting the node.
+     *
+     * @param raw the amount in raw.
+     * @return the exact amount in krai.
+     * @see Unit#fromRawExact(String)
+     */
+    public String kraiFromRawExact(String raw) {
+        return convert(Unit.KRAI::fromRawExact, raw);
     }
 
     /**
      * Multiply an krai amount by the krai ratio.
+     * <p>
+     * This is calculated locally without contacting the node.
      *
      * @param krai the amount in krai.
      * @return the amount in raw.
+     * @see Unit#toRaw(String)
      */
     public String kraiToRaw(String krai) {
-        Request request = Request.action("krai_to_raw")
-            .param("amount", krai)
-            .build();
-
-        return request(request, ConversionResponse.class).getAmount();
+        return convert(Unit.KRAI::toRaw, krai);
     }
 
     /**
      * Divide a raw amount down by the rai ratio.
+     * <p>
+     * This is calculated locally without contacting the node.
      *
      * @param raw the amount in raw.
      * @return the amount in rai.
+     * @see Unit#fromRaw(String)
      */
     public String raiFromRaw(String raw) {
-        Request request = Request.action("rai_from_raw")
-            .param("amount", raw)
-            .build();
+        return convert(Unit.RAI::fromRaw, raw);
+    }
 
-        return request(request, ConversionResponse.class).getAmount();
+    /**
+     * Divide a raw amount down by the rai ratio, keeping any fraction.
+     * <p>
+     * This is calculated locally without contacting the node.
+     *
+     * @param raw the amount in raw.
+     * @return the exact amount in rai.
+     * @see Unit#fromRawExact(String)
+     */
+    public String raiFromRawExact(String raw) {
+        return convert(Unit.RAI::fromRawExact, raw);
     }
 
     /**
      * Multiply an rai amount by the rai ratio.
+     * <p>
+     * This is calculated locally without contacting the node.
      *
      * @param rai the amount in rai.
      * @return the amount in raw.
+     * @see Unit#toRaw(String)
      */
     public String raiToRaw(String rai) {
-        Request request = Request.action("rai_to_raw")
-            .param("amount", rai)
-            .build();
+        return convert(Unit.RAI::toRaw, rai);
+    }
 
-        return request(request, ConversionResponse.class).getAmount();
+    static String convert(Function<String, String> conversion, String amount) {
+        try {
+            return conversion.apply(amount);
+        } catch (IllegalArgumentException e) {
+            throw new NanoException("Bad amount number", e);
+        }
     }
 
     // endregion
@@ -499,8 +571,7 @@ public class NanoClient {
      * @return version information about the node.
      */
     public NodeVersion getNodeVersion() {
-        Request request = Request.action("version").build();
-        return request(request, NodeVersion.class);
+        return Futures.join(calls.getNodeVersion());
     }
 
     /**
@@ -509,8 +580,7 @@ public class NanoClient {
      * Requires enable_control.
      */
     public void stopNode() {
-        Request request = Request.action("stop").build();
-        request(request, VoidResponse.class);
+        Futures.join(calls.stopNode());
     }
 
     // endregion
@@ -520,22 +590,34 @@ public class NanoClient {
     /**
      * Receive a pending block for an account.
      * <p>
-     * Requires enable_control.
+     * Requires enable_control. Uses precached work when a
+     * {@link WorkPrecache} is registered, and asks the node to generate
+     * the work instead if the account has moved on since it was precached.
      *
      * @param wallet  the wallet associated with the account.
      * @param account the account to receive into.
      * @param block   the pending block.
      * @return the newly created block.
-     * TODO: Add optional work parameter
+     * @see NanoClient#receive(String, String, String, String)
      */
     public Receive receive(String wallet, String account, String block) {
-        Request request = Request.action("receive")
-            .param("wallet", wallet)
-            .param("account", account)
-            .param("block", block)
-            .build();
+        return Futures.join(calls.receive(wallet, account, block));
+    }
 
-        return request(request, Receive.class);
+    /**
+     * Receive a pending block for an account using work which has already
+     * been generated.
+     * <p>
+     * Requires enable_control.
+     *
+     * @param wallet  the wallet associated with the account.
+     * @param account the account to receive into.
+     * @param block   the pending block.
+     * @param work    the work for the new block, or null for the node to generate it.
+     * @return the newly created block.
+     */
+    public Receive receive(String wallet, String account, String block, String work) {
+        return Futures.join(calls.receive(wallet, account, block, work));
     }
 
     /**
@@ -546,8 +628,7 @@ public class NanoClient {
      * @return the minimum receive amount.
      */
     public ReceiveMinimum getReceiveMinimum() {
-        Request request = Request.action("receive_minimum").build();
-        return request(request, ReceiveMinimum.class);
+        return Futures.join(calls.getReceiveMinimum());
     }
 
     /**
@@ -558,11 +639,7 @@ public class NanoClient {
      * @param amount the new amount to set.
      */
     public void setReceiveMinimum(String amount) {
-        Request request = Request.action("receive_minimum_set")
-            .param("amount", amount)
-            .build();
-
-        request(request, VoidResponse.class);
+        Futures.join(calls.setReceiveMinimum(amount));
     }
 
     // endregion
@@ -574,8 +651,7 @@ public class NanoClient {
      * TODO: Add optional count and sorting parameters
      */
     public Representatives getRepresentatives() {
-        Request request = Request.action("representatives").build();
-        return request(request, Representatives.class);
+        return Futures.join(calls.getRepresentatives());
     }
 
     /**
@@ -585,11 +661,7 @@ public class NanoClient {
      * @return the wallet's representative.
      */
     public WalletRepresentative getWalletRepresentative(String wallet) {
-        Request request = Request.action("wallet_representative")
-            .param("wallet", wallet)
-            .build();
-
-        return request(request, WalletRepresentative.class);
+        return Futures.join(calls.getWalletRepresentative(wallet));
     }
 
     /**
@@ -601,12 +673,7 @@ public class NanoClient {
      * @param representative the representative to set.
      */
     public void setWalletRepresentative(String wallet, String representative) {
-        Request request = Request.action("wallet_representative_set")
-            .param("wallet", wallet)
-            .build();
-
-        request(request, WalletRepresentativeSet.class);
-        return;
+        Futures.join(calls.setWalletRepresentative(wallet, representative));
     }
 
     // endregion
@@ -616,23 +683,36 @@ public class NanoClient {
     /**
      * Send funds from one account to another.
      * <p>
-     * Requires enable_control.
+     * Requires enable_control. Uses precached work when a
+     * {@link WorkPrecache} is registered, and asks the node to generate
+     * the work instead if the account has moved on since it was precached.
      *
      * @param wallet      the wallet which contains the source account.
      * @param source      the account to send from.
      * @param destination the receiving account.
      * @param amount      the amount to send. // TODO: document the unit here
      * @return the block associated with the send transaction.
+     * @see NanoClient#send(String, String, String, String, String)
      */
     public Send send(String wallet, String source, String destination, String amount) {
-        Request request = Request.action("send")
-            .param("wallet", wallet)
-            .param("source", source)
-            .param("destination", destination)
-            .param("amount", amount)
-            .build();
+        return Futures.join(calls.send(wallet, source, destination, amount));
+    }
 
-        return request(request, Send.class);
+    /**
+     * Send funds from one account to another using work which has already
+     * been generated.
+     * <p>
+     * Requires enable_control.
+     *
+     * @param wallet      the wallet which contains the source account.
+     * @param source      the account to send from.
+     * @param destination the receiving account.
+     * @param amount      the amount to send, in raw.
+     * @param work        the work for the new block, or null for the node to generate it.
+     * @return the block associated with the send transaction.
+     */
+    public Send send(String wallet, String source, String destination, String amount, String work) {
+        return Futures.join(calls.send(wallet, source, destination, amount, work));
     }
 
     // endregion
@@ -648,11 +728,7 @@ public class NanoClient {
      * TODO: Add optional threshold
      */
     public Balances getWalletBalances(String wallet) {
-        Request request = Request.action("wallet_balances")
-            .param("wallet", wallet)
-            .build();
-
-        return request(request, Balances.class);
+        return Futures.join(calls.getWalletBalances(wallet));
     }
 
     /**
@@ -664,12 +740,7 @@ public class NanoClient {
      * @param seed   the new seed.
      */
     public void changeWalletSeed(String wallet, String seed) {
-        Request request = Request.action("wallet_change_seed")
-            .param("wallet", wallet)
-            .param("seed", seed)
-            .build();
-
-        request(request, VoidResponse.class);
+        Futures.join(calls.changeWalletSeed(wallet, seed));
     }
 
     /**
@@ -680,28 +751,635 @@ public class NanoClient {
      * @return true or false.
      */
     public boolean walletContainsAccount(String wallet, String account) {
-        Request request = Request.action("wallet_contains")
-            .param("wallet", wallet)
+        return Futures.join(calls.walletContainsAccount(wallet, account));
+    }
+
+    // endregion
+
+    // region Work Methods
+
+    /**
+     * Generates work for a block on the node.
+     * <p>
+     * Requires enable_control.
+     *
+     * @param hash the previous block hash, or the public key for an open block.
+     * @return the generated work.
+     * @see WorkGenerator
+     */
+    public WorkGenerate generateWork(String hash) {
+        return Futures.join(calls.generateWork(hash));
+    }
+
+    /**
+     * Check whether work is valid for a block.
+     * <p>
+     * The work is checked locally against the network's default threshold
+     * unless disabled with {@link Builder#localWorkValidation(boolean)}.
+     *
+     * @param work the work to check.
+     * @param hash the previous block hash, or the public key for an open block.
+     * @return true or false.
+     */
+    public boolean validateWork(String work, String hash) {
+        return Futures.join(calls.validateWork(work, hash));
+    }
+
+    // endregion
+
+    boolean isLocalAddressCodec() {
+        return localAddressCodec;
+    }
+
+    boolean isLocalWorkValidation() {
+        return localWorkValidation;
+    }
+
+    WorkPrecache getWorkPrecache() {
+        return workPrecache;
+    }
+
+    BlockCache getBlockCache() {
+        return blockCache;
+    }
+
+    static Request chainRequest(String block, Integer count) {
+        return Request.action("chain")
+            .param("block", block)
+            .param("count", count)
+            .build();
+    }
+
+    /**
+     * Returns how many blocks to fetch for a chain walk. One more than needed
+     * is requested so that the previous block of the last one is learned too.
+     */
+    static int fetchCount(int remaining) {
+        return remaining < Integer.MAX_VALUE ? remaining + 1 : remaining;
+    }
+
+    /**
+     * Splits a chain fetched with one block more than the segment size into
+     * the segment and the block the next one starts at.
+     */
+    private static PrefetchingIterator.Page<String> chainSegment(Chain chain, int segmentSize) {
+        List<String> blocks = chain.getBlocks() != null ? chain.getBlocks() : Collections.emptyList();
+        if (blocks.size() <= segmentSize) {
+            return new PrefetchingIterator.Page<>(blocks, null);
+        }
+        return new PrefetchingIterator.Page<>(blocks.subList(0, segmentSize), blocks.get(segmentSize));
+    }
+
+    private CompletableFuture<PrefetchingIterator.Page<History>> historyPage(String account, int pageSize, String head) {
+        Request request = Request.action("account_history")
             .param("account", account)
+            .param("count", pageSize)
+            .param("head", head)
             .build();
 
-        return request(request, ExistenceResponse.class).exists();
+        return requestAsync(request, AccountHistory.class).thenCompose(history -> {
+            List<History> entries = history.getHistory() != null ? history.getHistory() : Collections.emptyList();
+            if (history.getPrevious() != null || entries.size() < pageSize) {
+                return CompletableFuture.completedFuture(new PrefetchingIterator.Page<>(entries, history.getPrevious()));
+            }
+            // Nodes which do not report the cursor continue from the block before the last entry.
+            String last = entries.get(entries.size() - 1).getHash();
+            return requestAsync(chainRequest(last, 2), Chain.class).thenApply(chain -> {
+                List<String> blocks = chain.getBlocks();
+                return new PrefetchingIterator.Page<>(entries, blocks != null && blocks.size() > 1 ? blocks.get(1) : null);
+            });
+        });
     }
 
-    // endregion
+    /**
+     * Returns the batcher for single account balance lookups, or null if
+     * batching is disabled.
+     */
+    BalanceBatcher getBalanceBatcher() {
+        return balanceBatcher;
+    }
+
+    /**
+     * Returns the executor for splitting bulk account requests, or null if
+     * chunking is disabled.
+     */
+    ChunkedExecutor getChunkedExecutor() {
+        return chunkedExecutor;
+    }
 
-    private <T extends BaseResponse> T request(Request r, Class<T> clazz) {
+    /**
+     * Sends a request through the response cache and coalescing. The returned
+     * future completes exceptionally with a {@link NanoException} on failure.
+     */
+    <T extends BaseResponse> CompletableFuture<T> requestAsync(Request r, Class<T> clazz) {
+        return requestAsync(r, clazz, false);
+    }
+
+    /**
+     * @param blocking whether to make the RPC on the calling thread, in which
+     *                 case the returned future is already complete. This is
+     *                 how the blocking methods share the implementations of
+     *                 {@link AsyncNanoClient}.
+     */
+    <T extends BaseResponse> CompletableFuture<T> requestAsync(Request r, Class<T> clazz, boolean blocking) {
+        if (responseCache != null && responseCache.appliesTo(r)) {
+            return responseCache.getAsync(r, clazz, () -> load(r, clazz, blocking));
+        }
+        return load(r, clazz, blocking);
+    }
+
+    private <T extends BaseResponse> CompletableFuture<T> load(Request r, Class<T> clazz, boolean blocking) {
+        if (singleFlight != null && r.isReadOnly()) {
+            return singleFlight.executeAsync(r, () -> execute(r, clazz, blocking));
+        }
+        return execute(r, clazz, blocking);
+    }
+
+    private <T extends BaseResponse> CompletableFuture<T> execute(Request r, Class<T> clazz, boolean blocking) {
+        if (!blocking) {
+            return executeAsync(r, clazz);
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
         try {
-            String json = gson.toJson(r.getMap());
-            String body = client.post(json);
-            System.out.println("Response: " + body);
-            T t = gson.fromJson(body, clazz);
-            if (!t.isSuccess()) {
-                throw new NanoException(t.getError());
-            }
+            future.complete(execute(r, clazz));
+        } catch (NanoException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private <T extends BaseResponse> T execute(Request r, Class<T> clazz) {
+        String json = encode(r);
+        listener.rpcStarted(r.getAction());
+        long start = System.nanoTime();
+        long responseLength = -1;
+        try {
+            ResponseBody body = post(r, json);
+            responseLength = body.contentLength();
+            T t = decode(body, clazz);
+            listener.rpcCompleted(r.getAction(), json.length(), responseLength, System.nanoTime() - start, null);
             return t;
         } catch (IOException e) {
+            NanoException failure = new NanoException("Unable to communicate with node", e);
+            listener.rpcCompleted(r.getAction(), json.length(), responseLength, System.nanoTime() - start, failure);
+            throw failure;
+        } catch (NanoException e) {
+            listener.rpcCompleted(r.getAction(), json.length(), responseLength, System.nanoTime() - start, e);
+            throw e;
+        }
+    }
+
+    private <T extends BaseResponse> CompletableFuture<T> executeAsync(Request r, Class<T> clazz) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        String json = encode(r);
+        listener.rpcStarted(r.getAction());
+        long start = System.nanoTime();
+        postAsync(r, json).whenComplete((body, e) -> {
+            if (e != null) {
+                NanoException failure = new NanoException("Unable to communicate with node", e);
+                listener.rpcCompleted(r.getAction(), json.length(), -1, System.nanoTime() - start, failure);
+                future.completeExceptionally(failure);
+                return;
+            }
+            long responseLength = body.contentLength();
+            T t;
+            try {
+                t = decode(body, clazz);
+            } catch (NanoException ex) {
+                listener.rpcCompleted(r.getAction(), json.length(), responseLength, System.nanoTime() - start, ex);
+                future.completeExceptionally(ex);
+                return;
+            }
+            listener.rpcCompleted(r.getAction(), json.length(), responseLength, System.nanoTime() - start, null);
+            future.complete(t);
+        });
+        return future;
+    }
+
+    private ResponseBody post(Request r, String json) throws IOException {
+        if (retryPolicy != null && retryPolicy.appliesTo(r)) {
+            return retryPolicy.post(r, json, nodes);
+        }
+        return nodes.post(r, json);
+    }
+
+    private CompletableFuture<ResponseBody> postAsync(Request r, String json) {
+        if (retryPolicy != null && retryPolicy.appliesTo(r)) {
+            return retryPolicy.postAsync(r, json, nodes);
+        }
+        return nodes.postAsync(r, json);
+    }
+
+    /**
+     * Encodes a block as the JSON string the process action expects.
+     */
+    String encodeBlock(StateBlock block) {
+        return gson.toJson(block);
+    }
+
+    String encode(Request r) {
+        return gson.toJson(r.getMap());
+    }
+
+    /**
+     * Decodes the response incrementally from the body's character stream, so
+     * the raw payload is never materialized as a string. The body is always
+     * closed.
+     */
+    <T extends BaseResponse> T decode(ResponseBody body, Class<T> clazz) {
+        T t;
+        try (ResponseBody b = body) {
+            t = gson.fromJson(new JsonReader(b.charStream()), clazz);
+        } catch (JsonIOException e) {
             throw new NanoException("Unable to communicate with node", e);
+        } catch (JsonParseException e) {
+            throw new NanoException("Unable to parse response from node", e);
+        }
+        if (t == null) {
+            // Reported as a parse failure, so it is not mistaken for an error message from the node.
+            throw new NanoException("Empty response from node", new JsonParseException("Empty response body"));
+        }
+        if (!t.isSuccess()) {
+            throw new NanoException(t.getError());
+        }
+        return t;
+    }
+
+    static AccountGet encodeAccount(String publicKey) {
+        try {
+            return new AccountGet(AddressCodec.encode(publicKey));
+        } catch (IllegalArgumentException e) {
+            throw new NanoException("Bad public key", e);
+        }
+    }
+
+    static AccountPublicKey decodeAccount(String account) {
+        try {
+            return new AccountPublicKey(AddressCodec.decode(account));
+        } catch (IllegalArgumentException e) {
+            throw new NanoException("Bad account number", e);
+        }
+    }
+
+    static boolean isValidWork(String work, String hash) {
+        long nonce;
+        try {
+            nonce = ProofOfWork.parse(work);
+        } catch (IllegalArgumentException e) {
+            throw new NanoException("Bad work", e);
+        }
+        try {
+            return ProofOfWork.meets(WorkValidator.value(nonce, hash), ProofOfWork.DEFAULT_THRESHOLD);
+        } catch (IllegalArgumentException e) {
+            throw new NanoException("Bad block hash", e);
+        }
+    }
+
+    /**
+     * Configures a {@link NanoClient}.
+     * <p>
+     * By default every client gets its own {@link OkHttpClient}. Passing the
+     * same {@link OkHttpClient} to several builders lets the clients share a
+     * single connection pool and dispatcher. Timeouts applied here are layered
+     * on top of the supplied client without modifying it. The dispatcher and
+     * connection pool are always shared with a supplied client, so request
+     * limits and the pool size must be set on that client rather than here.
+     */
+    public static class Builder {
+
+        private List<String> hosts = Collections.singletonList(DEFAULT_HOST);
+        private boolean pinWrites;
+        private RetryPolicy retryPolicy;
+        private boolean coalesceReads;
+        private ResponseCache responseCache;
+        private BlockCache blockCache;
+        private boolean localAddressCodec = true;
+        private boolean localWorkValidation = true;
+        private WorkPrecache workPrecache;
+        private int balanceBatchSize;
+        private long balanceBatchWindowNanos;
+        private int chunkSize;
+        private int chunkConcurrency;
+        private long chunkTargetLatencyNanos;
+        private OkHttpClient okHttpClient;
+        private Integer maxIdleConnections;
+        private long keepAliveMillis = -1;
+        private Integer maxRequests;
+        private Integer maxRequestsPerHost;
+        private long connectTimeoutMillis = -1;
+        private long readTimeoutMillis = -1;
+        private long writeTimeoutMillis = -1;
+        private final List<RpcListener> listeners = new ArrayList<>();
+
+        Builder() {
+        }
+
+        /**
+         * @param host the URL of the node's RPC server, defaults to http://localhost:7076.
+         */
+        public Builder host(String host) {
+            this.hosts = Collections.singletonList(host);
+            return this;
+        }
+
+        /**
+         * Spreads requests across several nodes, preferring the one with the
+         * lowest recent latency and failing over when a node cannot be reached.
+         *
+         * @param hosts the URLs of the nodes' RPC servers.
+         * @see #pinWrites(boolean)
+         */
+        public Builder hosts(List<String> hosts) {
+            this.hosts = new ArrayList<>(hosts);
+            return this;
+        }
+
+        /**
+         * @see #hosts(List)
+         */
+        public Builder hosts(String... hosts) {
+            return hosts(Arrays.asList(hosts));
+        }
+
+        /**
+         * Sends every write action, such as send or receive, and every wallet
+         * request to the first host rather than balancing them. Wallets only
+         * exist on the node they were created on, so this should be enabled
+         * when using wallet methods with several hosts.
+         *
+         * @param pinWrites whether or not to pin writes to the first host.
+         */
+        public Builder pinWrites(boolean pinWrites) {
+            this.pinWrites = pinWrites;
+            return this;
+        }
+
+        /**
+         * @param okHttpClient a shared or pre-configured client to send requests with.
+         */
+        public Builder okHttpClient(OkHttpClient okHttpClient) {
+            this.okHttpClient = okHttpClient;
+            return this;
+        }
+
+        /**
+         * Replaces the connection pool with one of the given size. Can only
+         * be used when no {@link OkHttpClient} is supplied, so that a shared
+         * client's connections stay shared.
+         *
+         * @param maxIdleConnections the number of idle connections to keep open.
+         * @param keepAlive          how long an idle connection is kept open.
+         * @param unit               the unit of keepAlive.
+         */
+        public Builder connectionPool(int maxIdleConnections, long keepAlive, TimeUnit unit) {
+            this.maxIdleConnections = maxIdleConnections;
+            this.keepAliveMillis = unit.toMillis(keepAlive);
+            return this;
+        }
+
+        /**
+         * Can only be used when no {@link OkHttpClient} is supplied.
+         *
+         * @param maxRequests the maximum number of concurrent asynchronous requests.
+         */
+        public Builder maxRequests(int maxRequests) {
+            this.maxRequests = maxRequests;
+            return this;
+        }
+
+        /**
+         * Can only be used when no {@link OkHttpClient} is supplied.
+         *
+         * @param maxRequestsPerHost the maximum number of concurrent asynchronous requests to the node.
+         */
+        public Builder maxRequestsPerHost(int maxRequestsPerHost) {
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+
+        public Builder connectTimeout(long timeout, TimeUnit unit) {
+            this.connectTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        public Builder readTimeout(long timeout, TimeUnit unit) {
+            this.readTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        public Builder writeTimeout(long timeout, TimeUnit unit) {
+            this.writeTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * Registers a listener to be notified of every RPC. May be called
+         * more than once to register several listeners.
+         *
+         * @param listener the listener to add.
+         */
+        public Builder listener(RpcListener listener) {
+            listeners.add(listener);
+            return this;
+        }
+
+        /**
+         * Records latency, throughput and error metrics for every RPC into the
+         * given registry. A registry may be shared between several clients.
+         *
+         * @param metrics the registry to record into.
+         */
+        public Builder metrics(RpcMetrics metrics) {
+            return listener(metrics);
+        }
+
+        /**
+         * Retries, and optionally hedges, read only requests. Actions which
+         * modify state are never retried.
+         *
+         * @param retryPolicy the policy to apply.
+         */
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Coalesces identical read only requests made concurrently, so that
+         * only one RPC is sent and every caller receives its result. Callers
+         * then share the same response object.
+         *
+         * @param coalesceReads whether or not to coalesce identical reads.
+         */
+        public Builder coalesceReads(boolean coalesceReads) {
+            this.coalesceReads = coalesceReads;
+            return this;
+        }
+
+        /**
+         * Serves read only requests from a cache while their responses are
+         * fresh. Checked before coalescing, so a cached response is returned
+         * without waiting for an identical request in flight.
+         *
+         * @param responseCache the cache to use, which may be shared between clients.
+         */
+        public Builder responseCache(ResponseCache responseCache) {
+            this.responseCache = responseCache;
+            return this;
+        }
+
+        /**
+         * Remembers the account and previous block of every block seen by
+         * {@link NanoClient#getBlockAccount(String)},
+         * {@link NanoClient#getChain(String, Integer)} and
+         * {@link NanoClient#process(StateBlock)}. Blocks never change, so
+         * these are kept for the life of the cache.
+         *
+         * @param blockCache the cache to use, which may be shared between clients.
+         */
+        public Builder blockCache(BlockCache blockCache) {
+            this.blockCache = blockCache;
+            return this;
+        }
+
+        /**
+         * Gathers calls to {@link NanoClient#getAccountBalance(String)} made
+         * from any thread within a short window and sends them as a single
+         * accounts_balances request.
+         *
+         * @param maxBatchSize the maximum number of accounts in one request.
+         * @param window       how long to wait for more lookups after the first.
+         * @param unit         the unit of window.
+         */
+        public Builder batchBalances(int maxBatchSize, long window, TimeUnit unit) {
+            if (maxBatchSize < 1) {
+                throw new IllegalArgumentException("maxBatchSize must be at least 1");
+            }
+            this.balanceBatchSize = maxBatchSize;
+            this.balanceBatchWindowNanos = unit.toNanos(window);
+            return this;
+        }
+
+        /**
+         * Splits {@link NanoClient#getAccountBalances(List)},
+         * {@link NanoClient#getAccountsFrontiers(List)} and
+         * {@link NanoClient#getAccountsPending(List, Integer)} requests into
+         * chunks of accounts which are sent in parallel and merged.
+         *
+         * @param chunkSize      the number of accounts per request.
+         * @param maxConcurrency the maximum number of chunks in flight at once.
+         */
+        public Builder chunkAccounts(int chunkSize, int maxConcurrency) {
+            if (chunkSize < 1 || maxConcurrency < 1) {
+                throw new IllegalArgumentException("chunkSize and maxConcurrency must be at least 1");
+            }
+            this.chunkSize = chunkSize;
+            this.chunkConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Adapts the chunk size set by {@link #chunkAccounts(int, int)} so that
+         * each chunk takes roughly the given time.
+         *
+         * @param target the desired latency of a single chunk.
+         * @param unit   the unit of target.
+         */
+        public Builder adaptiveChunking(long target, TimeUnit unit) {
+            this.chunkTargetLatencyNanos = unit.toNanos(target);
+            return this;
+        }
+
+        /**
+         * Converts between public keys and account addresses locally rather
+         * than with the account_get and account_key RPCs. Enabled by default.
+         *
+         * @param localAddressCodec whether or not to convert addresses locally.
+         */
+        public Builder localAddressCodec(boolean localAddressCodec) {
+            this.localAddressCodec = localAddressCodec;
+            return this;
+        }
+
+        /**
+         * Checks work locally rather than with the work_validate RPC.
+         * Enabled by default. Disable it if the node uses a different
+         * threshold from the live network.
+         *
+         * @param localWorkValidation whether or not to validate work locally.
+         */
+        public Builder localWorkValidation(boolean localWorkValidation) {
+            this.localWorkValidation = localWorkValidation;
+            return this;
+        }
+
+        /**
+         * Computes work ahead of time for the precache's accounts, which is
+         * then used by {@link NanoClient#send(String, String, String, String)}
+         * and {@link NanoClient#receive(String, String, String)}. A precache
+         * can only be registered with one client.
+         *
+         * @param workPrecache the precache to start.
+         */
+        public Builder workPrecache(WorkPrecache workPrecache) {
+            this.workPrecache = workPrecache;
+            return this;
+        }
+
+        public NanoClient build() {
+            OkHttpClient okHttpClient = buildOkHttpClient();
+            List<HttpClient> clients = new ArrayList<>();
+            for (String host : hosts) {
+                clients.add(new HttpClient(host, okHttpClient));
+            }
+            return build(new NodePool(clients, pinWrites));
+        }
+
+        NanoClient build(NodePool nodes) {
+            return new NanoClient(this, nodes);
+        }
+
+        NanoClient build(HttpClient client) {
+            return build(new NodePool(Collections.singletonList(client), pinWrites));
+        }
+
+        OkHttpClient buildOkHttpClient() {
+            OkHttpClient base;
+            if (okHttpClient != null) {
+                if (maxRequests != null || maxRequestsPerHost != null) {
+                    throw new IllegalStateException("Request limits must be set on the dispatcher of the supplied OkHttpClient");
+                }
+                if (maxIdleConnections != null) {
+                    throw new IllegalStateException("The connection pool must be set on the supplied OkHttpClient");
+                }
+                base = okHttpClient;
+            } else {
+                base = new OkHttpClient();
+                if (maxRequests != null) {
+                    base.dispatcher().setMaxRequests(maxRequests);
+                }
+                if (maxRequestsPerHost != null) {
+                    base.dispatcher().setMaxRequestsPerHost(maxRequestsPerHost);
+                }
+            }
+            if (maxIdleConnections == null && connectTimeoutMillis < 0 && readTimeoutMillis < 0 && writeTimeoutMillis < 0) {
+                return base;
+            }
+
+            OkHttpClient.Builder builder = base.newBuilder();
+            if (maxIdleConnections != null) {
+                builder.connectionPool(new ConnectionPool(maxIdleConnections, keepAliveMillis, TimeUnit.MILLISECONDS));
+            }
+            if (connectTimeoutMillis >= 0) {
+                builder.connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            if (readTimeoutMillis >= 0) {
+                builder.readTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            if (writeTimeoutMillis >= 0) {
+                builder.writeTimeout(writeTimeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            return builder.build();
         }
     }
 }
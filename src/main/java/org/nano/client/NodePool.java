@@ -0,0 +1,221 @@
+package org.nano.client;
+
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spreads requests over one or more nodes.
+ * <p>
+ * Each request goes to the better of two randomly chosen nodes, scored by an
+ * exponentially weighted moving average of their latency and the number of
+ * requests already in flight to them. A node that fails is skipped for a
+ * backoff period which grows with consecutive failures. Read only requests
+ * which fail with an {@link IOException} are retried on another node; other
+ * requests only fail over when the connection could not be established, so
+ * they are never executed twice.
+ * <p>
+ * When writes are pinned, write and wallet requests always go to the first
+ * node, which is where the wallets are expected to live.
+ */
+class NodePool {
+
+    static final int MAX_NODES = 64;
+
+    private final Node[] nodes;
+    private final boolean pinWrites;
+
+    NodePool(List<HttpClient> clients, boolean pinWrites) {
+        if (clients.isEmpty() || clients.size() > MAX_NODES) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_NODES + " nodes are supported");
+        }
+        this.nodes = new Node[clients.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new Node(i, clients.get(i));
+        }
+        this.pinWrites = pinWrites;
+    }
+
+    ResponseBody post(Request r, String json) throws IOException {
+        if (nodes.length == 1) {
+            return nodes[0].client.post(json);
+        }
+
+        boolean pinned = isPinned(r);
+        Node node = pinned ? nodes[0] : select(0L);
+        long tried = 0L;
+        while (true) {
+            try {
+                return node.post(json);
+            } catch (IOException e) {
+                tried |= 1L << node.index;
+                Node next = pinned || !canFailOver(r, e) ? null : select(tried);
+                if (next == null) {
+                    throw e;
+                }
+                node = next;
+            }
+        }
+    }
+
+    CompletableFuture<ResponseBody> postAsync(Request r, String json) {
+        if (nodes.length == 1) {
+            return nodes[0].client.postAsync(json);
+        }
+
+        CompletableFuture<ResponseBody> future = new CompletableFuture<>();
+        boolean pinned = isPinned(r);
+        postAsync(r, json, pinned ? nodes[0] : select(0L), pinned, 0L, future);
+        return future;
+    }
+
+    private void postAsync(Request r, String json, Node node, boolean pinned, long tried,
+                           CompletableFuture<ResponseBody> future) {
+        node.postAsync(json).whenComplete((body, e) -> {
+            if (e == null) {
+                future.complete(body);
+                return;
+            }
+            Throwable cause = Futures.unwrap(e);
+            long nowTried = tried | 1L << node.index;
+            Node next = pinned || !canFailOver(r, cause) ? null : select(nowTried);
+            if (next == null) {
+                future.completeExceptionally(cause);
+            } else {
+                postAsync(r, json, next, false, nowTried, future);
+            }
+        });
+    }
+
+    Node node(int index) {
+        return nodes[index];
+    }
+
+    private boolean isPinned(Request r) {
+        return pinWrites && (!r.isReadOnly() || r.isWalletScoped());
+    }
+
+    private static boolean canFailOver(Request r, Throwable e) {
+        if (!(e instanceof IOException)) {
+            return false;
+        }
+        return r.isReadOnly() || e instanceof ConnectException || e instanceof UnknownHostException;
+    }
+
+    /**
+     * Picks the better of two random healthy nodes which have not been tried
+     * yet. Falls back to unhealthy nodes when no healthy one is left.
+     *
+     * @param tried a bit mask of node indexes to exclude.
+     * @return the node, or null if every node has been tried.
+     */
+    Node select(long tried) {
+        long now = System.nanoTime();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean healthyOnly = true;
+        Node first = probe(random.nextInt(nodes.length), tried, null, true, now);
+        if (first == null) {
+            healthyOnly = false;
+            first = probe(random.nextInt(nodes.length), tried, null, false, now);
+            if (first == null) {
+                return null;
+            }
+        }
+        Node second = probe(random.nextInt(nodes.length), tried, first, healthyOnly, now);
+        return second != null && second.score() < first.score() ? second : first;
+    }
+
+    /**
+     * Returns the first eligible node at or after the start index, wrapping around.
+     */
+    private Node probe(int start, long tried, Node exclude, boolean healthyOnly, long now) {
+        for (int i = 0; i < nodes.length; i++) {
+            Node node = nodes[(start + i) % nodes.length];
+            if (node != exclude && (tried & 1L << node.index) == 0 && (!healthyOnly || node.isHealthy(now))) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    static class Node {
+
+        private static final double ALPHA = 0.2;
+        private static final long BASE_BACKOFF_NANOS = 250_000_000L;
+        private static final long MAX_BACKOFF_NANOS = 30_000_000_000L;
+
+        private final int index;
+        private final HttpClient client;
+        private final AtomicLong ewmaNanos = new AtomicLong(Double.doubleToRawLongBits(0));
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private volatile long retryAt;
+
+        Node(int index, HttpClient client) {
+            this.index = index;
+            this.client = client;
+        }
+
+        ResponseBody post(String json) throws IOException {
+            inFlight.incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                ResponseBody body = client.post(json);
+                succeeded(System.nanoTime() - start);
+                return body;
+            } catch (IOException e) {
+                failed();
+                throw e;
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        CompletableFuture<ResponseBody> postAsync(String json) {
+            inFlight.incrementAndGet();
+            long start = System.nanoTime();
+            return client.postAsync(json).whenComplete((body, e) -> {
+                inFlight.decrementAndGet();
+                if (e == null) {
+                    succeeded(System.nanoTime() - start);
+                } else {
+                    failed();
+                }
+            });
+        }
+
+        void succeeded(long latencyNanos) {
+            failures.set(0);
+            retryAt = 0;
+            while (true) {
+                long bits = ewmaNanos.get();
+                double ewma = Double.longBitsToDouble(bits);
+                double updated = ewma == 0 ? latencyNanos : ewma + ALPHA * (latencyNanos - ewma);
+                if (ewmaNanos.compareAndSet(bits, Double.doubleToRawLongBits(updated))) {
+                    return;
+                }
+            }
+        }
+
+        void failed() {
+            int count = Math.min(failures.incrementAndGet(), 20);
+            retryAt = System.nanoTime() + Math.min(MAX_BACKOFF_NANOS, BASE_BACKOFF_NANOS << (count - 1));
+        }
+
+        boolean isHealthy(long now) {
+            long until = retryAt;
+            return until == 0 || now - until >= 0;
+        }
+
+        double score() {
+            return Double.longBitsToDouble(ewmaNanos.get()) * (inFlight.get() + 1);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.nano.client;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterates over a source read one page at a time. The first page is fetched
+ * when the iterator is first used, and each following page is requested
+ * when the caller starts on the current one, so it loads while the caller
+ * works through it. At most two pages are held at once.
+ * <p>
+ * Closing the iterator stops waiting for a page still being fetched; the
+ * request itself is not cancelled and runs to completion. Failures are
+ * thrown from {@link #hasNext()} as {@link NanoException}s.
+ */
+class PrefetchingIterator<T> implements Iterator<T>, AutoCloseable {
+
+    private final Function<String, CompletableFuture<Page<T>>> fetch;
+    private String start;
+    private boolean started;
+    private Iterator<T> current = Collections.emptyIterator();
+    private CompletableFuture<Page<T>> next;
+
+    /**
+     * @param start the cursor of the first page, which may be null.
+     * @param fetch requests the page at a cursor.
+     */
+    PrefetchingIterator(String start, Function<String, CompletableFuture<Page<T>>> fetch) {
+        this.start = start;
+        this.fetch = fetch;
+    }
+
+    /**
+     * @return a sequential stream over the iterator which closes it when closed.
+     */
+    Stream<T> stream() {
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!started) {
+            started = true;
+            next = fetch.apply(start);
+            start = null;
+        }
+        while (!current.hasNext()) {
+            if (next == null) {
+                return false;
+            }
+            Page<T> page = Futures.join(next);
+            next = page.next != null ? fetch.apply(page.next) : null;
+            current = page.items.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    @Override
+    public void close() {
+        started = true;
+        current = Collections.emptyIterator();
+        if (next != null) {
+            next.cancel(false);
+            next = null;
+        }
+    }
+
+    /**
+     * The items of one page and the cursor of the page after it.
+     */
+    static final class Page<T> {
+
+        private final List<T> items;
+        private final String next;
+
+        /**
+         * @param items the items in the page.
+         * @param next  the cursor of the next page, or null if this is the last.
+         */
+        Page(List<T> items, String next) {
+            this.items = items;
+            this.next = next;
+        }
+    }
+}
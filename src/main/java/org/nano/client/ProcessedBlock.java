@@ -0,0 +1,10 @@
+package org.nano.client;
+
+public class ProcessedBlock extends BaseResponse {
+
+    private String hash;
+
+    public String getHash() {
+        return hash;
+    }
+}
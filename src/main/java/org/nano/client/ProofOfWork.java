@@ -0,0 +1,92 @@
+package org.nano.client;
+
+/**
+ * Computes Nano proof of work values.
+ * <p>
+ * The value of a nonce is the 8 byte Blake2b digest of the nonce, little
+ * endian, followed by the 32 byte root, read as an unsigned little endian
+ * number. Work is valid when its value is at least the threshold. The root is
+ * the previous block hash, or the account's public key for an open block.
+ */
+final class ProofOfWork {
+
+    static final long DEFAULT_THRESHOLD = 0xffffffc000000000L;
+
+    static final int ROOT_LENGTH = 32;
+    static final int INPUT_LENGTH = 8 + ROOT_LENGTH;
+
+    private ProofOfWork() {
+    }
+
+    /**
+     * @return a buffer holding the root after space for the nonce, to pass to
+     * {@link #value(Blake2b, byte[], long)}.
+     */
+    static byte[] input(String root) {
+        byte[] input = new byte[INPUT_LENGTH];
+        if (!Hex.decode(root, input, 8, ROOT_LENGTH)) {
+            throw new IllegalArgumentException("Invalid root: " + root);
+        }
+        return input;
+    }
+
+    /**
+     * @param blake2b an 8 byte digest.
+     * @param input   a buffer from {@link #input(String)}, whose nonce is overwritten.
+     */
+    static long value(Blake2b blake2b, byte[] input, long nonce) {
+        input[0] = (byte) nonce;
+        input[1] = (byte) (nonce >>> 8);
+        input[2] = (byte) (nonce >>> 16);
+        input[3] = (byte) (nonce >>> 24);
+        input[4] = (byte) (nonce >>> 32);
+        input[5] = (byte) (nonce >>> 40);
+        input[6] = (byte) (nonce >>> 48);
+        input[7] = (byte) (nonce >>> 56);
+        blake2b.update(input, 0, INPUT_LENGTH);
+        return blake2b.digestLong();
+    }
+
+    static boolean meets(long value, long threshold) {
+        return Long.compareUnsigned(value, threshold) >= 0;
+    }
+
+    /**
+     * @return the number of nonces expected to be tried before one meets the threshold.
+     */
+    static double expectedHashes(long threshold) {
+        if (threshold == 0) {
+            return 1;
+        }
+        // 2^64 - threshold, the number of values which meet it.
+        return Math.pow(2, 64) / unsigned(-threshold);
+    }
+
+    /**
+     * Formats a nonce as the node does, as 16 hexadecimal digits.
+     */
+    static String format(long work) {
+        String hex = Long.toHexString(work);
+        return hex.length() == 16 ? hex : "0000000000000000".substring(hex.length()) + hex;
+    }
+
+    static long parse(String work) {
+        if (work == null || work.isEmpty() || work.length() > 16) {
+            throw new IllegalArgumentException("Invalid work: " + work);
+        }
+        long nonce = 0;
+        for (int i = 0; i < work.length(); i++) {
+            int digit = Hex.digit(work.charAt(i));
+            if (digit < 0) {
+                throw new IllegalArgumentException("Invalid work: " + work);
+            }
+            nonce = nonce << 4 | digit;
+        }
+        return nonce;
+    }
+
+    private static double unsigned(long value) {
+        double result = (double) (value >>> 1) * 2;
+        return result + (value & 1);
+    }
+}
@@ -0,0 +1,235 @@
+package org.nano.client;
+
+import java.math.BigInteger;
+
+/**
+ * An immutable, unsigned 128 bit amount of raw, the smallest unit of Nano.
+ * <p>
+ * Amounts are held in two longs, so parsing, formatting, addition,
+ * subtraction and comparison never go through {@link BigInteger}. This
+ * makes it cheap to total large numbers of balances or weights.
+ */
+public final class Raw implements Comparable<Raw> {
+
+    public static final Raw ZERO = new Raw(0, 0);
+    public static final Raw MAX = new Raw(-1L, -1L);
+
+    private static final long LOW_32_BITS = 0xFFFFFFFFL;
+    private static final int MAX_DIGITS = 39;
+    private static final int DIGITS_PER_CHUNK = 18;
+    private static final long[] POWERS_OF_TEN = new long[DIGITS_PER_CHUNK + 1];
+    private static final long BILLION = 1_000_000_000L;
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final long high;
+    private final long low;
+
+    private Raw(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * @param raw a non-negative amount.
+     */
+    public static Raw of(long raw) {
+        if (raw < 0) {
+            throw new IllegalArgumentException("Raw amount cannot be negative: " + raw);
+        }
+        return raw == 0 ? ZERO : new Raw(0, raw);
+    }
+
+    /**
+     * @param raw an amount between 0 and 2^128 - 1.
+     */
+    public static Raw of(BigInteger raw) {
+        if (raw.signum() < 0 || raw.bitLength() > 128) {
+            throw new IllegalArgumentException("Raw amount out of range: " + raw);
+        }
+        return new Raw(raw.shiftRight(64).longValue(), raw.longValue());
+    }
+
+    /**
+     * Parses a decimal amount of raw, such as a balance returned by the node.
+     *
+     * @param raw the digits of the amount.
+     * @throws NumberFormatException if the string is not a decimal number between 0 and 2^128 - 1.
+     */
+    public static Raw parse(CharSequence raw) {
+        int length = raw.length();
+        if (length == 0 || length > MAX_DIGITS) {
+            throw new NumberFormatException("Not a raw amount: " + raw);
+        }
+
+        long high = 0;
+        long low = 0;
+        int index = 0;
+        while (index < length) {
+            int digits = Math.min(DIGITS_PER_CHUNK, length - index);
+            long chunk = 0;
+            for (int end = index + digits; index < end; index++) {
+                int digit = raw.charAt(index) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new NumberFormatException("Not a raw amount: " + raw);
+                }
+                chunk = chunk * 10 + digit;
+            }
+
+            // (high, low) = (high, low) * 10^digits + chunk
+            long multiplier = POWERS_OF_TEN[digits];
+            long carry = multiplyHighUnsigned(low, multiplier);
+            if (multiplyHighUnsigned(high, multiplier) != 0) {
+                throw new NumberFormatException("Raw amount out of range: " + raw);
+            }
+            long product = high * multiplier;
+            high = product + carry;
+            if (Long.compareUnsigned(high, product) < 0) {
+                throw new NumberFormatException("Raw amount out of range: " + raw);
+            }
+            low = low * multiplier;
+            long sum = low + chunk;
+            if (Long.compareUnsigned(sum, low) < 0) {
+                high++;
+                if (high == 0) {
+                    throw new NumberFormatException("Raw amount out of range: " + raw);
+                }
+            }
+            low = sum;
+        }
+        return new Raw(high, low);
+    }
+
+    /**
+     * Parses a response field on first use. Callers store the result back
+     * into their cache field, which is safe to race on as Raw is immutable.
+     *
+     * @param cached the previously parsed amount, or null.
+     * @param amount the field to parse, which may be null.
+     */
+    static Raw parseIfAbsent(Raw cached, String amount) {
+        return cached != null || amount == null ? cached : parse(amount);
+    }
+
+    /**
+     * @throws ArithmeticException if the sum is larger than 2^128 - 1.
+     */
+    public Raw add(Raw other) {
+        long sumLow = low + other.low;
+        long carry = Long.compareUnsigned(sumLow, low) < 0 ? 1 : 0;
+        long sumHigh = high + other.high;
+        boolean overflow = Long.compareUnsigned(sumHigh, high) < 0;
+        sumHigh += carry;
+        if (overflow || (carry == 1 && sumHigh == 0)) {
+            throw new ArithmeticException("Raw amount overflow");
+        }
+        return new Raw(sumHigh, sumLow);
+    }
+
+    /**
+     * @throws ArithmeticException if other is larger than this amount.
+     */
+    public Raw subtract(Raw other) {
+        if (compareTo(other) < 0) {
+            throw new ArithmeticException("Raw amount underflow");
+        }
+        long differenceLow = low - other.low;
+        long borrow = Long.compareUnsigned(low, other.low) < 0 ? 1 : 0;
+        return new Raw(high - other.high - borrow, differenceLow);
+    }
+
+    public boolean isZero() {
+        return high == 0 && low == 0;
+    }
+
+    @Override
+    public int compareTo(Raw other) {
+        int compare = Long.compareUnsigned(high, other.high);
+        return compare != 0 ? compare : Long.compareUnsigned(low, other.low);
+    }
+
+    public BigInteger toBigInteger() {
+        byte[] bytes = new byte[17];
+        writeBytes(bytes, 1);
+        return new BigInteger(bytes);
+    }
+
+    /**
+     * Writes the amount as 16 big endian bytes, as it appears in a block.
+     */
+    void writeBytes(byte[] out, int offset) {
+        for (int i = 0; i < 8; i++) {
+            out[offset + 7 - i] = (byte) (high >>> (i * 8));
+            out[offset + 15 - i] = (byte) (low >>> (i * 8));
+        }
+    }
+
+    /**
+     * @return the amount in raw as a decimal string.
+     */
+    @Override
+    public String toString() {
+        if (high == 0 && low >= 0) {
+            return Long.toString(low);
+        }
+
+        // repeatedly divide the four 32 bit limbs by 10^9, filling the buffer from the end
+        long[] limbs = {high >>> 32, high & LOW_32_BITS, low >>> 32, low & LOW_32_BITS};
+        char[] buffer = new char[MAX_DIGITS + 1];
+        int position = buffer.length;
+        boolean zero;
+        do {
+            long remainder = 0;
+            zero = true;
+            for (int i = 0; i < limbs.length; i++) {
+                long current = (remainder << 32) | limbs[i];
+                limbs[i] = current / BILLION;
+                remainder = current % BILLION;
+                zero &= limbs[i] == 0;
+            }
+            for (int i = 0; i < 9 && (!zero || remainder != 0); i++) {
+                buffer[--position] = (char) ('0' + remainder % 10);
+                remainder /= 10;
+            }
+        } while (!zero);
+        return new String(buffer, position, buffer.length - position);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Raw)) {
+            return false;
+        }
+        Raw other = (Raw) o;
+        return high == other.high && low == other.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(high) + Long.hashCode(low);
+    }
+
+    /**
+     * Returns the upper 64 bits of the unsigned 128 bit product of x and y.
+     */
+    static long multiplyHighUnsigned(long x, long y) {
+        long x0 = x & LOW_32_BITS;
+        long x1 = x >>> 32;
+        long y0 = y & LOW_32_BITS;
+        long y1 = y >>> 32;
+
+        long w0 = x0 * y0;
+        long t = x1 * y0 + (w0 >>> 32);
+        long w1 = (t & LOW_32_BITS) + x0 * y1;
+        long w2 = t >>> 32;
+        return x1 * y1 + w2 + (w1 >>> 32);
+    }
+}
@@ -4,6 +4,7 @@ public class Representative {
 
     private String address;
     private String amount;
+    private transient Raw amountRaw;
 
     Representative(String address, String amount) {
         this.address = address;
@@ -22,7 +23,15 @@ public class Representative {
         return amount;
     }
 
+    /**
+     * @return the amount as a {@link Raw} amount, parsed on first use.
+     */
+    public Raw getAmountRaw() {
+        return amountRaw = Raw.parseIfAbsent(amountRaw, amount);
+    }
+
     void setAmount(String amount) {
         this.amount = amount;
+        this.amountRaw = null;
     }
 }
@@ -7,12 +7,21 @@ import java.util.Map;
 class Representatives extends BaseResponse {
 
     private Map<String, String> representatives;
+    private transient volatile List<Representative> list;
 
+    /**
+     * @return the representatives, which are built once so that the amounts
+     * they parse on first use are kept between calls.
+     */
     public List<Representative> getRepresentatives() {
-        List<Representative> output = new ArrayList<>();
-        for (String account : representatives.keySet()) {
-            output.add(new Representative(account, representatives.get(account)));
+        List<Representative> output = list;
+        if (output == null) {
+            output = new ArrayList<>();
+            for (String account : representatives.keySet()) {
+                output.add(new Representative(account, representatives.get(account)));
+            }
+            list = output;
         }
-        return output;
+        return new ArrayList<>(output);
     }
 }
@@ -1,11 +1,48 @@
 package org.nano.client;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 class Request {
 
     private static final String ACTION_KEY = "action";
+
+    /**
+     * Actions which only read state and can safely be sent more than once or
+     * to any node. Anything not listed here is treated as a write.
+     */
+    private static final Set<String> READ_ONLY_ACTIONS = new HashSet<>(Arrays.asList(
+        "account_balance",
+        "account_block_count",
+        "account_get",
+        "account_history",
+        "account_info",
+        "account_key",
+        "account_list",
+        "account_representative",
+        "account_weight",
+        "accounts_balances",
+        "accounts_frontiers",
+        "accounts_pending",
+        "block_account",
+        "block_count",
+        "block_count_type",
+        "chain",
+        "receive_minimum",
+        "representatives",
+        "version",
+        "wallet_balances",
+        "wallet_contains",
+        "wallet_representative",
+        "work_validate"
+    ));
+
     private final String action;
     private final Map<String, Object> map;
 
@@ -23,6 +60,24 @@ class Request {
         return action;
     }
 
+    /**
+     * @return true if the action does not modify the ledger, a wallet or the node.
+     */
+    boolean isReadOnly() {
+        return isReadOnly(action);
+    }
+
+    static boolean isReadOnly(String action) {
+        return READ_ONLY_ACTIONS.contains(action);
+    }
+
+    /**
+     * @return true if the request refers to a wallet, which only exists on a single node.
+     */
+    boolean isWalletScoped() {
+        return map.containsKey("wallet");
+    }
+
     static Builder action(String action) {
         return new Builder(action);
     }
@@ -37,7 +92,14 @@ class Request {
             this.map = new HashMap<>();
         }
 
+        /**
+         * Lists are copied, since the request map is held as a key by the
+         * response cache and single flight after the caller has moved on.
+         */
         Builder param(String key, Object value) {
+            if (value instanceof List) {
+                value = Collections.unmodifiableList(new ArrayList<>((List<?>) value));
+            }
             map.put(key, value);
             return this;
         }
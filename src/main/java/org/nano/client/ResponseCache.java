@@ -0,0 +1,417 @@
+package org.nano.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Caches the responses of read only requests for a configured time.
+ * <p>
+ * Each cached action has its own time to live and maximum number of
+ * entries, beyond which the least recently used response is evicted.
+ * Responses are keyed by the request's action and parameters. Failed
+ * requests are never cached, and actions which modify state cannot be
+ * configured.
+ * <p>
+ * Account actions can instead be cached until the account's frontier moves.
+ * Calling {@link #validate(NanoClient)} checks the frontier of every cached
+ * account with one accounts_frontiers request and discards only the
+ * responses of accounts which have since created a block.
+ * <p>
+ * Callers receive the same cached response object, which must be treated as
+ * read only.
+ */
+public class ResponseCache {
+
+    private static final Set<String> FRONTIER_ACTIONS = new HashSet<>(Arrays.asList(
+        "account_balance",
+        "account_block_count",
+        "account_history",
+        "account_info"
+    ));
+
+    // Recorded as the frontier of accounts which have not been opened.
+    private static final String UNOPENED = "0000000000000000000000000000000000000000000000000000000000000000";
+
+    private final Map<String, Segment> segments;
+    private final LongSupplier ticker;
+    private final Map<String, String> frontiers = new ConcurrentHashMap<>();
+
+    private ResponseCache(Builder builder) {
+        this.segments = new HashMap<>(builder.segments);
+        this.ticker = builder.ticker;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    boolean appliesTo(Request r) {
+        return segments.containsKey(r.getAction());
+    }
+
+    <T> CompletableFuture<T> getAsync(Request r, Class<T> clazz, Supplier<CompletableFuture<T>> load) {
+        Segment segment = segments.get(r.getAction());
+        Object cached = segment.get(r.getMap(), ticker.getAsLong());
+        if (cached != null) {
+            return CompletableFuture.completedFuture(clazz.cast(cached));
+        }
+        // The frontier is read before the request, so a block created meanwhile invalidates the response.
+        String frontier = frontier(segment, r);
+        return load.get().thenApply(t -> {
+            put(segment, r, t, frontier);
+            return t;
+        });
+    }
+
+    private String frontier(Segment segment, Request r) {
+        String account = account(r);
+        return segment.frontierKeyed && account != null ? frontiers.get(account) : null;
+    }
+
+    private void put(Segment segment, Request r, Object value, String frontier) {
+        if (value instanceof AccountInformation && ((AccountInformation) value).getFrontier() != null) {
+            frontier = ((AccountInformation) value).getFrontier();
+        }
+        segment.put(r.getMap(), new Entry(value, ticker.getAsLong() + segment.ttlNanos, account(r), frontier));
+    }
+
+    private static String account(Request r) {
+        Object account = r.getMap().get("account");
+        return account instanceof String ? (String) account : null;
+    }
+
+    /**
+     * Checks the frontiers of every account with responses cached until
+     * their frontier moves, as well as every account checked before.
+     *
+     * @param client the client to request accounts_frontiers with.
+     * @return the accounts whose frontier has moved since they were last checked.
+     * @see #validate(NanoClient, List)
+     */
+    public List<String> validate(NanoClient client) {
+        Set<String> accounts = new HashSet<>(frontiers.keySet());
+        for (Segment segment : segments.values()) {
+            if (segment.frontierKeyed) {
+                segment.addAccounts(accounts);
+            }
+        }
+        return validate(client, new ArrayList<>(accounts));
+    }
+
+    /**
+     * Checks the frontiers of a set of accounts with a single
+     * accounts_frontiers request, which is split into chunks if the client
+     * is configured to. Responses cached until the frontier moves are
+     * discarded for every account whose frontier differs from the one known
+     * when they were fetched. Responses fetched before an account was first
+     * checked are discarded unless they carry the frontier themselves.
+     * <p>
+     * Checking accounts before reading them means later checks only discard
+     * the responses of accounts which have since created a block.
+     *
+     * @param client   the client to request accounts_frontiers with.
+     * @param accounts the accounts to check.
+     * @return the accounts whose frontier has moved since they were last checked.
+     */
+    public List<String> validate(NanoClient client, List<String> accounts) {
+        if (accounts.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<String, String> current = new HashMap<>();
+        for (String account : accounts) {
+            current.put(account, UNOPENED);
+        }
+        for (AccountFrontier frontier : client.getAccountsFrontiers(accounts).getFrontiers()) {
+            current.put(frontier.getAddress(), frontier.getBlock());
+        }
+
+        List<String> moved = new ArrayList<>();
+        for (Map.Entry<String, String> entry : current.entrySet()) {
+            String previous = frontiers.put(entry.getKey(), entry.getValue());
+            if (previous != null && !previous.equals(entry.getValue())) {
+                moved.add(entry.getKey());
+            }
+        }
+        for (Segment segment : segments.values()) {
+            if (segment.frontierKeyed) {
+                segment.invalidate(current);
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Discards every cached response.
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments.values()) {
+            segment.clear();
+        }
+        frontiers.clear();
+    }
+
+    /**
+     * Discards the cached responses for one action.
+     *
+     * @param action the action, such as account_info.
+     */
+    public void invalidate(String action) {
+        Segment segment = segments.get(action);
+        if (segment != null) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * @return the statistics of every cached action, keyed by action.
+     */
+    public Map<String, Stats> stats() {
+        Map<String, Stats> stats = new TreeMap<>();
+        for (Map.Entry<String, Segment> entry : segments.entrySet()) {
+            stats.put(entry.getKey(), entry.getValue().stats(entry.getKey()));
+        }
+        return stats;
+    }
+
+    /**
+     * The entries of one action, in least recently used order.
+     */
+    private static class Segment {
+
+        private final long ttlNanos;
+        private final boolean frontierKeyed;
+        private final Map<Map<String, Object>, Entry> entries;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final LongAdder expirations = new LongAdder();
+
+        Segment(long ttlNanos, boolean frontierKeyed, int maxEntries) {
+            this.ttlNanos = ttlNanos;
+            this.frontierKeyed = frontierKeyed;
+            this.entries = new LinkedHashMap<Map<String, Object>, Entry>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Map<String, Object>, Entry> eldest) {
+                    if (size() > maxEntries) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        Object get(Map<String, Object> key, long now) {
+            synchronized (entries) {
+                Entry entry = entries.get(key);
+                if (entry != null) {
+                    if (frontierKeyed || now - entry.expiresAt < 0) {
+                        hits.increment();
+                        return entry.value;
+                    }
+                    entries.remove(key);
+                    expirations.increment();
+                }
+            }
+            misses.increment();
+            return null;
+        }
+
+        void put(Map<String, Object> key, Entry entry) {
+            synchronized (entries) {
+                entries.put(key, entry);
+            }
+        }
+
+        void addAccounts(Set<String> accounts) {
+            synchronized (entries) {
+                for (Entry entry : entries.values()) {
+                    if (entry.account != null) {
+                        accounts.add(entry.account);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Removes the entries of accounts whose frontier is not the one they were fetched at.
+         */
+        void invalidate(Map<String, String> frontiers) {
+            synchronized (entries) {
+                Iterator<Entry> iterator = entries.values().iterator();
+                while (iterator.hasNext()) {
+                    Entry entry = iterator.next();
+                    String frontier = entry.account != null ? frontiers.get(entry.account) : null;
+                    if (frontier != null && !Objects.equals(frontier, entry.frontier)) {
+                        iterator.remove();
+                        expirations.increment();
+                    }
+                }
+            }
+        }
+
+        void clear() {
+            synchronized (entries) {
+                entries.clear();
+            }
+        }
+
+        Stats stats(String action) {
+            int size;
+            synchronized (entries) {
+                size = entries.size();
+            }
+            return new Stats(action, hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), size);
+        }
+    }
+
+    private static class Entry {
+
+        private final Object value;
+        private final long expiresAt;
+        private final String account;
+        private final String frontier;
+
+        Entry(Object value, long expiresAt, String account, String frontier) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.account = account;
+            this.frontier = frontier;
+        }
+    }
+
+    /**
+     * A point in time view of the cache for a single action.
+     */
+    public static class Stats {
+
+        private final String action;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+        private final int size;
+
+        Stats(String action, long hits, long misses, long evictions, long expirations, int size) {
+            this.action = action;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.size = size;
+        }
+
+        public String getAction() {
+            return action;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * @return the number of lookups which had to contact the node, including expired entries.
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * @return the number of entries removed to stay within the maximum size.
+         */
+        public long getEvictions() {
+            return evictions;
+        }
+
+        /**
+         * @return the number of entries found to have outlived their time to
+         * live, or discarded because their account's frontier moved.
+         */
+        public long getExpirations() {
+            return expirations;
+        }
+
+        public int getSize() {
+            return size;
+        }
+    }
+
+    public static class Builder {
+
+        private final Map<String, Segment> segments = new HashMap<>();
+        private LongSupplier ticker = System::nanoTime;
+
+        Builder() {
+        }
+
+        /**
+         * Caches the responses of an action.
+         *
+         * @param action     a read only action, such as account_info or representatives.
+         * @param ttl        how long a response is used for.
+         * @param unit       the unit of ttl.
+         * @param maxEntries the maximum number of responses to keep for the action.
+         * @throws IllegalArgumentException if the action can modify state.
+         */
+        public Builder cache(String action, long ttl, TimeUnit unit, int maxEntries) {
+            if (!Request.isReadOnly(action)) {
+                throw new IllegalArgumentException("Only read only actions can be cached: " + action);
+            }
+            if (maxEntries < 1) {
+                throw new IllegalArgumentException("maxEntries must be at least 1");
+            }
+            segments.put(action, new Segment(unit.toNanos(ttl), false, maxEntries));
+            return this;
+        }
+
+        /**
+         * Caches the responses of an account action until
+         * {@link ResponseCache#validate(NanoClient)} finds that the account's
+         * frontier has moved.
+         * <p>
+         * Receivable amounts, such as the pending balance of account_balance,
+         * change when blocks are sent to the account, which does not move its
+         * frontier. Likewise the voting weight returned by account_info
+         * changes with its delegators. Use a time to live for those instead.
+         *
+         * @param action     one of account_balance, account_block_count, account_history or account_info.
+         * @param maxEntries the maximum number of responses to keep for the action.
+         * @throws IllegalArgumentException if the action is not derived from the account's chain.
+         */
+        public Builder cacheUntilFrontierMoves(String action, int maxEntries) {
+            if (!FRONTIER_ACTIONS.contains(action)) {
+                throw new IllegalArgumentException("Only account actions can be cached by frontier: " + action);
+            }
+            if (maxEntries < 1) {
+                throw new IllegalArgumentException("maxEntries must be at least 1");
+            }
+            segments.put(action, new Segment(0, true, maxEntries));
+            return this;
+        }
+
+        Builder ticker(LongSupplier ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        public ResponseCache build() {
+            return new ResponseCache(this);
+        }
+    }
+}
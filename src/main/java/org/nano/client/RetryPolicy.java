@@ -0,0 +1,285 @@
+package org.nano.client;
+
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retries and hedges read only requests.
+ * <p>
+ * A request which fails to reach the node is retried with exponential
+ * backoff and jitter, up to the maximum number of attempts. When hedging is
+ * enabled and an attempt takes longer than the configured percentile of that
+ * action's recent latencies, a duplicate request is sent and whichever
+ * response arrives first is used.
+ * <p>
+ * Only actions which do not modify state are ever retried or hedged. Actions
+ * which move value, such as send, receive and account_move, are always sent
+ * exactly once.
+ */
+public class RetryPolicy {
+
+    // a percentile over fewer samples than this is too noisy to hedge on
+    private static final int MIN_HEDGE_SAMPLES = 20;
+
+    private static final ScheduledExecutorService SCHEDULER = SharedScheduler.INSTANCE;
+
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final double hedgePercentile;
+    private final long minHedgeDelayNanos;
+    private final ConcurrentMap<String, Latency> latencies = new ConcurrentHashMap<>();
+
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoffNanos = builder.initialBackoffNanos;
+        this.maxBackoffNanos = builder.maxBackoffNanos;
+        this.hedgePercentile = builder.hedgePercentile;
+        this.minHedgeDelayNanos = builder.minHedgeDelayNanos;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    boolean appliesTo(Request r) {
+        return r.isReadOnly();
+    }
+
+    ResponseBody post(Request r, String json, NodePool nodes) throws IOException {
+        if (isHedging()) {
+            try {
+                return postAsync(r, json, nodes).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException(e.getCause());
+            }
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                ResponseBody body = nodes.post(r, json);
+                latency(r.getAction()).record(System.nanoTime() - start);
+                return body;
+            } catch (IOException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.sleep(backoff(attempt));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    CompletableFuture<ResponseBody> postAsync(Request r, String json, NodePool nodes) {
+        Execution execution = new Execution(r, json, nodes);
+        execution.attempt(execution.nextAttempt());
+        if (isHedging()) {
+            Latency latency = latency(r.getAction());
+            if (latency.samples.get() >= MIN_HEDGE_SAMPLES) {
+                long delay = Math.max(minHedgeDelayNanos, latency.histogram.percentile(hedgePercentile));
+                SCHEDULER.schedule(execution::hedge, delay, TimeUnit.NANOSECONDS);
+            }
+        }
+        return execution.result;
+    }
+
+    void recordLatency(String action, long nanos) {
+        latency(action).record(nanos);
+    }
+
+    private boolean isHedging() {
+        return hedgePercentile > 0;
+    }
+
+    private long backoff(int attempt) {
+        long backoff = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 30));
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    private Latency latency(String action) {
+        Latency latency = latencies.get(action);
+        if (latency == null) {
+            latency = latencies.computeIfAbsent(action, a -> new Latency());
+        }
+        return latency;
+    }
+
+    private static class Latency {
+
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final AtomicLong samples = new AtomicLong();
+
+        void record(long nanos) {
+            histogram.record(nanos);
+            samples.incrementAndGet();
+        }
+    }
+
+    /**
+     * The state of a single asynchronous request across its attempts.
+     */
+    private class Execution {
+
+        private final Request request;
+        private final String json;
+        private final NodePool nodes;
+        private final CompletableFuture<ResponseBody> result = new CompletableFuture<>();
+        private final AtomicInteger attempts = new AtomicInteger();
+        private final AtomicInteger pending = new AtomicInteger();
+
+        Execution(Request request, String json, NodePool nodes) {
+            this.request = request;
+            this.json = json;
+            this.nodes = nodes;
+        }
+
+        /**
+         * Reserves the next attempt, so retries and hedges together never
+         * exceed maxAttempts.
+         *
+         * @return the number of the attempt, or 0 if none are left.
+         */
+        int nextAttempt() {
+            while (true) {
+                int made = attempts.get();
+                if (made >= maxAttempts) {
+                    return 0;
+                }
+                if (attempts.compareAndSet(made, made + 1)) {
+                    return made + 1;
+                }
+            }
+        }
+
+        void attempt(int attempt) {
+            pending.incrementAndGet();
+            long start = System.nanoTime();
+            nodes.postAsync(request, json).whenComplete((body, e) -> {
+                if (e == null) {
+                    latency(request.getAction()).record(System.nanoTime() - start);
+                    pending.decrementAndGet();
+                    if (!result.complete(body)) {
+                        body.close();
+                    }
+                    return;
+                }
+
+                Throwable cause = Futures.unwrap(e);
+                if (!result.isDone() && cause instanceof IOException && attempts.get() < maxAttempts) {
+                    SCHEDULER.schedule(() -> retry(cause), backoff(attempt), TimeUnit.NANOSECONDS);
+                    return;
+                }
+                failed(cause);
+            });
+        }
+
+        /**
+         * Called after the backoff of a failed attempt. A hedge may have made
+         * the last attempt meanwhile, in which case the failure stands.
+         */
+        void retry(Throwable cause) {
+            int attempt = result.isDone() ? 0 : nextAttempt();
+            if (attempt > 0) {
+                attempt(attempt);
+            }
+            failed(cause);
+        }
+
+        void hedge() {
+            int attempt = result.isDone() ? 0 : nextAttempt();
+            if (attempt > 0) {
+                attempt(attempt);
+            }
+        }
+
+        /**
+         * Fails the request once no other attempt is in flight.
+         */
+        private void failed(Throwable cause) {
+            if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(cause);
+            }
+        }
+    }
+
+    public static class Builder {
+
+        private int maxAttempts = 3;
+        private long initialBackoffNanos = TimeUnit.MILLISECONDS.toNanos(50);
+        private long maxBackoffNanos = TimeUnit.SECONDS.toNanos(2);
+        private double hedgePercentile;
+        private long minHedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(5);
+
+        Builder() {
+        }
+
+        /**
+         * @param maxAttempts the maximum number of attempts including hedges, defaults to 3.
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("maxAttempts must be at least 1");
+            }
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Sets the backoff before the first retry, which doubles on each
+         * further retry up to the maximum. Defaults to 50ms and 2s.
+         */
+        public Builder backoff(long initial, long max, TimeUnit unit) {
+            this.initialBackoffNanos = unit.toNanos(initial);
+            this.maxBackoffNanos = unit.toNanos(max);
+            return this;
+        }
+
+        /**
+         * Sends a duplicate request when an attempt is slower than the given
+         * percentile of recent latencies for the same action.
+         *
+         * @param percentile the percentile, e.g. 95.
+         */
+        public Builder hedgeAfterPercentile(double percentile) {
+            if (percentile <= 0 || percentile >= 100) {
+                throw new IllegalArgumentException("percentile must be between 0 and 100");
+            }
+            this.hedgePercentile = percentile;
+            return this;
+        }
+
+        /**
+         * @param delay the minimum time to wait before hedging, defaults to 5ms.
+         */
+        public Builder minHedgeDelay(long delay, TimeUnit unit) {
+            this.minHedgeDelayNanos = unit.toNanos(delay);
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.nano.client;
+
+import java.util.List;
+
+/**
+ * Receives a callback for every RPC sent by a {@link NanoClient}.
+ * <p>
+ * Callbacks are made on the thread that completed the request, which for
+ * asynchronous requests is an OkHttp dispatcher thread, so implementations
+ * should be fast, thread safe and must not throw.
+ */
+public interface RpcListener {
+
+    /**
+     * A listener that ignores every event. This is the default.
+     */
+    RpcListener NONE = (action, requestLength, responseLength, latencyNanos, failure) -> {
+    };
+
+    /**
+     * Called immediately before an RPC is sent.
+     *
+     * @param action the RPC action, e.g. account_balance.
+     */
+    default void rpcStarted(String action) {
+    }
+
+    /**
+     * Called once an RPC has completed, successfully or not.
+     *
+     * @param action         the RPC action, e.g. account_balance.
+     * @param requestLength  the length of the encoded JSON request.
+     * @param responseLength the length of the response body, or -1 if the node did not report it.
+     * @param latencyNanos   the time from sending the request until the response was decoded.
+     * @param failure        the exception the call failed with, or null if it succeeded.
+     */
+    void rpcCompleted(String action, long requestLength, long responseLength, long latencyNanos, NanoException failure);
+
+    /**
+     * Returns a listener which forwards every event to each of the given listeners.
+     */
+    static RpcListener of(List<RpcListener> listeners) {
+        if (listeners.isEmpty()) {
+            return NONE;
+        }
+        if (listeners.size() == 1) {
+            return listeners.get(0);
+        }
+        RpcListener[] array = listeners.toArray(new RpcListener[0]);
+        return new RpcListener() {
+            @Override
+            public void rpcStarted(String action) {
+                for (RpcListener listener : array) {
+                    listener.rpcStarted(action);
+                }
+            }
+
+            @Override
+            public void rpcCompleted(String action, long requestLength, long responseLength, long latencyNanos, NanoException failure) {
+                for (RpcListener listener : array) {
+                    listener.rpcCompleted(action, requestLength, responseLength, latencyNanos, failure);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,212 @@
+package org.nano.client;
+
+import com.google.gson.JsonIOException;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records per-action RPC metrics: request counts, in-flight requests, latency
+ * percentiles, bytes transferred and errors split by cause.
+ * <p>
+ * Register it with {@link NanoClient.Builder#metrics(RpcMetrics)} and call
+ * {@link #snapshot()} periodically to export the numbers. Recording is lock
+ * free and does not allocate once an action has been seen.
+ */
+public class RpcMetrics implements RpcListener {
+
+    /**
+     * The reason an RPC failed.
+     */
+    public enum ErrorType {
+        /**
+         * The node answered with an error message.
+         */
+        NODE,
+        /**
+         * The node could not be reached or the connection failed.
+         */
+        COMMUNICATION,
+        /**
+         * The response could not be decoded.
+         */
+        PARSE
+    }
+
+    private final ConcurrentMap<String, ActionMetrics> actions = new ConcurrentHashMap<>();
+
+    @Override
+    public void rpcStarted(String action) {
+        metrics(action).inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void rpcCompleted(String action, long requestLength, long responseLength, long latencyNanos, NanoException failure) {
+        ActionMetrics metrics = metrics(action);
+        metrics.inFlight.decrementAndGet();
+        metrics.requests.increment();
+        metrics.latency.record(latencyNanos);
+        metrics.requestBytes.add(requestLength);
+        if (responseLength > 0) {
+            metrics.responseBytes.add(responseLength);
+        }
+        if (failure != null) {
+            metrics.errors[errorType(failure).ordinal()].increment();
+        }
+    }
+
+    /**
+     * Takes a point-in-time copy of the metrics of every action seen so far.
+     *
+     * @return the snapshots keyed and sorted by action.
+     */
+    public Map<String, ActionSnapshot> snapshot() {
+        Map<String, ActionSnapshot> output = new TreeMap<>();
+        for (Map.Entry<String, ActionMetrics> entry : actions.entrySet()) {
+            output.put(entry.getKey(), entry.getValue().snapshot(entry.getKey()));
+        }
+        return Collections.unmodifiableMap(output);
+    }
+
+    static ErrorType errorType(NanoException failure) {
+        Throwable cause = failure.getCause();
+        if (cause == null) {
+            return ErrorType.NODE;
+        }
+        if (cause instanceof IOException || cause instanceof JsonIOException) {
+            return ErrorType.COMMUNICATION;
+        }
+        return ErrorType.PARSE;
+    }
+
+    private ActionMetrics metrics(String action) {
+        ActionMetrics metrics = actions.get(action);
+        if (metrics == null) {
+            metrics = actions.computeIfAbsent(action, a -> new ActionMetrics());
+        }
+        return metrics;
+    }
+
+    private static class ActionMetrics {
+
+        private final LongAdder requests = new LongAdder();
+        private final AtomicLong inFlight = new AtomicLong();
+        private final LongAdder requestBytes = new LongAdder();
+        private final LongAdder responseBytes = new LongAdder();
+        private final LongAdder[] errors = new LongAdder[ErrorType.values().length];
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        ActionMetrics() {
+            for (int i = 0; i < errors.length; i++) {
+                errors[i] = new LongAdder();
+            }
+        }
+
+        ActionSnapshot snapshot(String action) {
+            long[] errorCounts = new long[errors.length];
+            for (int i = 0; i < errors.length; i++) {
+                errorCounts[i] = errors[i].sum();
+            }
+            long[] counts = latency.counts();
+            return new ActionSnapshot(
+                action,
+                requests.sum(),
+                inFlight.get(),
+                requestBytes.sum(),
+                responseBytes.sum(),
+                errorCounts,
+                LatencyHistogram.percentile(counts, 50),
+                LatencyHistogram.percentile(counts, 99),
+                LatencyHistogram.percentile(counts, 99.9)
+            );
+        }
+    }
+
+    /**
+     * An immutable copy of the metrics for a single action.
+     */
+    public static class ActionSnapshot {
+
+        private final String action;
+        private final long requests;
+        private final long inFlight;
+        private final long requestBytes;
+        private final long responseBytes;
+        private final long[] errors;
+        private final long p50;
+        private final long p99;
+        private final long p999;
+
+        ActionSnapshot(String action, long requests, long inFlight, long requestBytes, long responseBytes,
+                       long[] errors, long p50, long p99, long p999) {
+            this.action = action;
+            this.requests = requests;
+            this.inFlight = inFlight;
+            this.requestBytes = requestBytes;
+            this.responseBytes = responseBytes;
+            this.errors = errors;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.p999 = p999;
+        }
+
+        public String getAction() {
+            return action;
+        }
+
+        /**
+         * @return the number of completed requests, including failed ones.
+         */
+        public long getRequests() {
+            return requests;
+        }
+
+        /**
+         * @return the number of requests sent but not yet completed.
+         */
+        public long getInFlight() {
+            return inFlight;
+        }
+
+        public long getRequestBytes() {
+            return requestBytes;
+        }
+
+        /**
+         * @return the total response length, excluding responses of unknown length.
+         */
+        public long getResponseBytes() {
+            return responseBytes;
+        }
+
+        public long getErrors(ErrorType type) {
+            return errors[type.ordinal()];
+        }
+
+        public long getErrors() {
+            long total = 0;
+            for (long count : errors) {
+                total += count;
+            }
+            return total;
+        }
+
+        public long getP50Nanos() {
+            return p50;
+        }
+
+        public long getP99Nanos() {
+            return p99;
+        }
+
+        public long getP999Nanos() {
+            return p999;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.nano.client;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * A single daemon thread used for the client's timers, such as retry
+ * backoffs and batching windows. Tasks run on it must be short and must
+ * never block.
+ */
+final class SharedScheduler {
+
+    static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "nano-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private SharedScheduler() {
+    }
+}
@@ -0,0 +1,59 @@
+package org.nano.client;
+
+/**
+ * Signs blocks with an account's private key, without contacting a node.
+ * <p>
+ * The key is expanded once when the signer is created. A signer is immutable
+ * and may be shared between threads, so signing throughput scales with the
+ * number of processors.
+ */
+public final class Signer {
+
+    private final Ed25519.ExpandedKey key;
+    private final String publicKey;
+    private final String account;
+
+    /**
+     * @param privateKey the private key as 64 hexadecimal digits.
+     */
+    public Signer(String privateKey) {
+        if (privateKey == null || privateKey.length() != 2 * Ed25519.KEY_LENGTH) {
+            throw new IllegalArgumentException("Private key must be " + 2 * Ed25519.KEY_LENGTH + " hexadecimal digits");
+        }
+        this.key = Ed25519.expand(Hex.decode(privateKey));
+        byte[] publicKey = key.getPublicKey();
+        this.publicKey = Hex.encode(publicKey);
+        this.account = AddressCodec.encode(publicKey);
+    }
+
+    public String getPublicKey() {
+        return publicKey;
+    }
+
+    /**
+     * @return the address of the account the key belongs to.
+     */
+    public String getAccount() {
+        return account;
+    }
+
+    /**
+     * @param hash a block hash.
+     * @return the signature as 128 hexadecimal digits.
+     */
+    public String sign(String hash) {
+        return Hex.encode(Ed25519.sign(Hex.decode(hash), key));
+    }
+
+    /**
+     * @param block a block belonging to this signer's account.
+     * @return a copy of the block with its signature.
+     * @throws IllegalArgumentException if the block belongs to another account.
+     */
+    public StateBlock sign(StateBlock block) {
+        if (!publicKey.equals(AddressCodec.decode(block.getAccount()))) {
+            throw new IllegalArgumentException("Block belongs to " + block.getAccount() + ", not " + account);
+        }
+        return block.withSignature(sign(block.getHash()));
+    }
+}
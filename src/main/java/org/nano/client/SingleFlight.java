@@ -0,0 +1,50 @@
+package org.nano.client;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical concurrent requests. The first caller for a given
+ * action and set of parameters performs the RPC and every caller which
+ * arrives while it is in flight receives the same result.
+ * <p>
+ * Callers therefore share the returned response object, which must be
+ * treated as read only.
+ */
+class SingleFlight {
+
+    private final ConcurrentMap<Map<String, Object>, CompletableFuture<?>> calls = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    <T> CompletableFuture<T> executeAsync(Request r, Supplier<CompletableFuture<T>> call) {
+        Map<String, Object> key = r.getMap();
+        CompletableFuture<T> flight = new CompletableFuture<>();
+        CompletableFuture<T> existing = (CompletableFuture<T>) calls.putIfAbsent(key, flight);
+        if (existing != null) {
+            // a dependent future, so one caller cancelling does not affect the others
+            return existing.thenApply(t -> t);
+        }
+
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            // otherwise later callers would join a flight which never lands
+            calls.remove(key, flight);
+            flight.completeExceptionally(e);
+            return flight.thenApply(t -> t);
+        }
+        result.whenComplete((t, e) -> {
+            calls.remove(key, flight);
+            if (e != null) {
+                flight.completeExceptionally(Futures.unwrap(e));
+            } else {
+                flight.complete(t);
+            }
+        });
+        return flight.thenApply(t -> t);
+    }
+}
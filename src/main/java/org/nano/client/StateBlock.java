@@ -0,0 +1,245 @@
+package org.nano.client;
+
+/**
+ * A state block, built and hashed locally.
+ * <p>
+ * Blocks are immutable. Sign one with a {@link Signer}, attach work with
+ * {@link #withWork(String)} and publish it with
+ * {@link NanoClient#process(StateBlock)}.
+ */
+public final class StateBlock {
+
+    private static final int PREAMBLE = 6;
+    private static final String ZERO_HASH = "0000000000000000000000000000000000000000000000000000000000000000";
+
+    private final String type = "state";
+    private final String account;
+    private final String previous;
+    private final String representative;
+    private final String balance;
+    private final String link;
+    private final String linkAsAccount;
+    private final String signature;
+    private final String work;
+    private final transient String hash;
+
+    private StateBlock(Builder builder) {
+        this.account = builder.account;
+        this.previous = builder.previous;
+        this.representative = builder.representative;
+        this.balance = builder.balance.toString();
+        this.link = builder.link;
+        this.linkAsAccount = AddressCodec.encode(builder.link);
+        this.signature = null;
+        this.work = builder.work;
+        this.hash = hash(builder);
+    }
+
+    private StateBlock(StateBlock block, String signature, String work) {
+        this.account = block.account;
+        this.previous = block.previous;
+        this.representative = block.representative;
+        this.balance = block.balance;
+        this.link = block.link;
+        this.linkAsAccount = block.linkAsAccount;
+        this.signature = signature;
+        this.work = work;
+        this.hash = block.hash;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getAccount() {
+        return account;
+    }
+
+    public String getPrevious() {
+        return previous;
+    }
+
+    public String getRepresentative() {
+        return representative;
+    }
+
+    /**
+     * @return the balance of the account after this block, in raw.
+     */
+    public String getBalance() {
+        return balance;
+    }
+
+    public String getLink() {
+        return link;
+    }
+
+    public String getLinkAsAccount() {
+        return linkAsAccount;
+    }
+
+    /**
+     * @return the signature, or null if the block has not been signed.
+     */
+    public String getSignature() {
+        return signature;
+    }
+
+    /**
+     * @return the work, or null if none has been attached.
+     */
+    public String getWork() {
+        return work;
+    }
+
+    /**
+     * @return the Blake2b hash of the block's contents, which is what is signed.
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     * @return the hash work must be generated for: the previous block, or
+     * the account's public key when this block opens the account.
+     */
+    public String getRoot() {
+        return ZERO_HASH.equals(previous) ? AddressCodec.decode(account) : previous;
+    }
+
+    /**
+     * @return whether the block is signed by its account.
+     */
+    public boolean isSignatureValid() {
+        return signature != null && Ed25519.verify(Hex.decode(hash), Hex.decode(signature),
+            Hex.decode(AddressCodec.decode(account)));
+    }
+
+    /**
+     * @param work work for {@link #getRoot()}.
+     * @return a copy of this block with the work attached.
+     */
+    public StateBlock withWork(String work) {
+        return new StateBlock(this, signature, work);
+    }
+
+    StateBlock withSignature(String signature) {
+        return new StateBlock(this, signature, work);
+    }
+
+    private static String hash(Builder builder) {
+        byte[] preamble = new byte[32];
+        preamble[31] = PREAMBLE;
+        byte[] balance = new byte[16];
+        builder.balance.writeBytes(balance, 0);
+
+        Blake2b blake2b = new Blake2b(32);
+        blake2b.update(preamble);
+        blake2b.update(Hex.decode(AddressCodec.decode(builder.account)));
+        blake2b.update(Hex.decode(builder.previous));
+        blake2b.update(Hex.decode(AddressCodec.decode(builder.representative)));
+        blake2b.update(balance);
+        blake2b.update(Hex.decode(builder.link));
+        return Hex.encode(blake2b.digest());
+    }
+
+    public static class Builder {
+
+        private String account;
+        private String previous = ZERO_HASH;
+        private String representative;
+        private Raw balance;
+        private String link = ZERO_HASH;
+        private String work;
+
+        Builder() {
+        }
+
+        /**
+         * @param account the address of the account the block belongs to.
+         */
+        public Builder account(String account) {
+            this.account = validAccount(account);
+            return this;
+        }
+
+        /**
+         * @param previous the hash of the account's previous block, omitted when opening the account.
+         */
+        public Builder previous(String previous) {
+            this.previous = validHash(previous);
+            return this;
+        }
+
+        /**
+         * @param representative the address of the account's representative.
+         */
+        public Builder representative(String representative) {
+            this.representative = validAccount(representative);
+            return this;
+        }
+
+        /**
+         * @param balance the balance of the account after this block.
+         */
+        public Builder balance(Raw balance) {
+            this.balance = balance;
+            return this;
+        }
+
+        /**
+         * @param balance the balance of the account after this block, in raw.
+         */
+        public Builder balance(String balance) {
+            return balance(Raw.parse(balance));
+        }
+
+        /**
+         * Sets the link, which is the hash of the send block being received,
+         * the destination account of a send, or zero for a change of
+         * representative.
+         *
+         * @param link a block hash or an account address.
+         */
+        public Builder link(String link) {
+            this.link = AddressCodec.isValid(link) ? AddressCodec.decode(link) : validHash(link);
+            return this;
+        }
+
+        /**
+         * @param work work for the block's root, if it has already been generated.
+         */
+        public Builder work(String work) {
+            this.work = work;
+            return this;
+        }
+
+        /**
+         * @throws IllegalStateException if the account, representative or balance is missing.
+         */
+        public StateBlock build() {
+            if (account == null || representative == null || balance == null) {
+                throw new IllegalStateException("A state block needs an account, representative and balance");
+            }
+            return new StateBlock(this);
+        }
+
+        private static String validAccount(String account) {
+            if (!AddressCodec.isValid(account)) {
+                throw new IllegalArgumentException("Invalid account: " + account);
+            }
+            return account;
+        }
+
+        private static String validHash(String hash) {
+            if (hash == null || !Hex.decode(hash, new byte[32], 0, 32)) {
+                throw new IllegalArgumentException("Invalid hash: " + hash);
+            }
+            return hash.toUpperCase();
+        }
+    }
+}
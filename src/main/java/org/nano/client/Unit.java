@@ -0,0 +1,147 @@
+package org.nano.client;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * The units Nano amounts are expressed in, and conversions between them and
+ * raw.
+ * <p>
+ * Conversions are done locally. Converting from raw discards any fractional
+ * part, as the node's conversion RPCs do, unless the exact variant is used,
+ * which keeps it with {@link BigDecimal} arithmetic. Converting to raw
+ * accepts decimal amounts as long as they amount to a whole number of raw.
+ */
+public enum Unit {
+
+    RAW(0),
+    RAI(24),
+    KRAI(27),
+    MRAI(30);
+
+    static final BigInteger MAX_RAW = BigInteger.ONE.shiftLeft(128).subtract(BigInteger.ONE);
+    private static final int MAX_RAW_DIGITS = MAX_RAW.toString().length();
+
+    private final int exponent;
+    private final BigInteger ratio;
+
+    Unit(int exponent) {
+        this.exponent = exponent;
+        this.ratio = BigInteger.TEN.pow(exponent);
+    }
+
+    /**
+     * Divides a raw amount by this unit's ratio, discarding the remainder.
+     *
+     * @param raw the amount in raw.
+     * @return the whole amount in this unit.
+     * @throws IllegalArgumentException if raw is negative or larger than 128 bits.
+     * @see #fromRawExact(BigInteger)
+     */
+    public BigInteger fromRaw(BigInteger raw) {
+        checkRange(raw);
+        return raw.divide(ratio);
+    }
+
+    /**
+     * @see #fromRaw(BigInteger)
+     */
+    public BigInteger fromRaw(Raw raw) {
+        return raw.toBigInteger().divide(ratio);
+    }
+
+    /**
+     * Divides a raw amount by this unit's ratio.
+     *
+     * @param raw the amount in raw.
+     * @return the exact amount in this unit.
+     * @throws IllegalArgumentException if raw is negative or larger than 128 bits.
+     */
+    public BigDecimal fromRawExact(BigInteger raw) {
+        checkRange(raw);
+        return new BigDecimal(raw, exponent);
+    }
+
+    /**
+     * @see #fromRawExact(BigInteger)
+     */
+    public BigDecimal fromRawExact(Raw raw) {
+        return new BigDecimal(raw.toBigInteger(), exponent);
+    }
+
+    /**
+     * Multiplies an amount in this unit by the unit's ratio.
+     *
+     * @param amount the amount in this unit.
+     * @return the amount in raw.
+     * @throws IllegalArgumentException if the result is not a whole, non-negative, 128 bit raw amount.
+     */
+    public BigInteger toRaw(BigDecimal amount) {
+        // Checked before shifting, so that an amount such as 1E999999999 fails
+        // without first building a number with that many digits.
+        BigDecimal stripped = amount.stripTrailingZeros();
+        if (stripped.scale() > exponent) {
+            throw new IllegalArgumentException("Amount is smaller than 1 raw: " + amount);
+        }
+        if ((long) stripped.precision() - stripped.scale() + exponent > MAX_RAW_DIGITS) {
+            throw new IllegalArgumentException("Raw amount out of range: " + amount);
+        }
+        BigInteger raw = stripped.movePointRight(exponent).toBigIntegerExact();
+        checkRange(raw);
+        return raw;
+    }
+
+    /**
+     * @param raw the amount in raw as a decimal string.
+     * @return the whole amount in this unit.
+     * @see #fromRaw(BigInteger)
+     */
+    public String fromRaw(String raw) {
+        return fromRaw(parseRaw(raw)).toString();
+    }
+
+    /**
+     * @param raw the amount in raw as a decimal string.
+     * @return the exact amount in this unit, without trailing zeros or exponent.
+     * @see #fromRawExact(BigInteger)
+     */
+    public String fromRawExact(String raw) {
+        return format(fromRawExact(parseRaw(raw)));
+    }
+
+    /**
+     * @param amount the amount in this unit as a decimal string.
+     * @return the amount in raw.
+     * @see #toRaw(BigDecimal)
+     */
+    public String toRaw(String amount) {
+        BigDecimal value;
+        try {
+            value = new BigDecimal(amount);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + amount, e);
+        }
+        return toRaw(value).toString();
+    }
+
+    static String format(BigDecimal amount) {
+        if (amount.signum() == 0) {
+            return "0";
+        }
+        return amount.stripTrailingZeros().toPlainString();
+    }
+
+    private static BigInteger parseRaw(String raw) {
+        try {
+            return new BigInteger(raw);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a raw amount: " + raw, e);
+        }
+    }
+
+    private static void checkRange(BigInteger raw) {
+        if (raw.signum() < 0 || raw.compareTo(MAX_RAW) > 0) {
+            throw new IllegalArgumentException("Raw amount out of range: " + raw);
+        }
+    }
+}
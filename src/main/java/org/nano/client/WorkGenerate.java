@@ -0,0 +1,10 @@
+package org.nano.client;
+
+public class WorkGenerate extends BaseResponse {
+
+    private String work;
+
+    public String getWork() {
+        return work;
+    }
+}
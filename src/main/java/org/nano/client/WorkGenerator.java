@@ -0,0 +1,245 @@
+package org.nano.client;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Generates proof of work locally, searching for a nonce on every thread of
+ * a dedicated pool.
+ * <p>
+ * Requests are worked on one at a time in the order they are made, each
+ * using every thread, so a single request completes as quickly as possible.
+ * Cancelling the returned {@link Task} or letting it time out stops the
+ * search within a few thousand hashes.
+ * <p>
+ * A generator owns its threads and should be shared and closed when no
+ * longer needed.
+ */
+public class WorkGenerator implements AutoCloseable {
+
+    // Hashes between checks for cancellation and metric updates.
+    private static final int CHECK_INTERVAL = 4096;
+
+    private static final ThreadLocal<Blake2b> BLAKE2B = ThreadLocal.withInitial(() -> new Blake2b(8));
+
+    private final int threads;
+    private final long threshold;
+    private final ExecutorService executor;
+    private final Set<Task> tasks = ConcurrentHashMap.newKeySet();
+    private final LongAdder hashes = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+
+    /**
+     * Creates a generator using one thread per available processor and the
+     * network's default threshold.
+     */
+    public WorkGenerator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param threads the number of threads to search with.
+     */
+    public WorkGenerator(int threads) {
+        this(threads, ProofOfWork.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param threads   the number of threads to search with.
+     * @param threshold the minimum work value, as an unsigned number.
+     */
+    public WorkGenerator(int threads, long threshold) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.threads = threads;
+        this.threshold = threshold;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "nano-work-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts generating work for a root.
+     *
+     * @param root the previous block hash, or the public key for an open block.
+     * @return the task, which completes with the work as 16 hexadecimal digits.
+     */
+    public Task generate(String root) {
+        return generate(root, threshold);
+    }
+
+    /**
+     * @param root      the previous block hash, or the public key for an open block.
+     * @param threshold the minimum work value, as an unsigned number.
+     * @see #generate(String)
+     */
+    public Task generate(String root, long threshold) {
+        Task task = new Task(root, threshold, ProofOfWork.input(root));
+        tasks.add(task);
+        task.whenComplete((work, e) -> tasks.remove(task));
+        try {
+            for (int i = 0; i < threads; i++) {
+                executor.execute(() -> search(task));
+            }
+        } catch (RejectedExecutionException e) {
+            task.completeExceptionally(new NanoException("Work generator is closed", e));
+        }
+        return task;
+    }
+
+    /**
+     * Starts generating work for a root, giving up after the timeout. The
+     * task then completes exceptionally with a {@link TimeoutException}.
+     *
+     * @param root    the previous block hash, or the public key for an open block.
+     * @param timeout the time to allow, including time queued behind other requests.
+     * @param unit    the unit of timeout.
+     * @see #generate(String)
+     */
+    public Task generate(String root, long timeout, TimeUnit unit) {
+        Task task = generate(root);
+        if (!task.isDone()) {
+            ScheduledFuture<?> timer = SharedScheduler.INSTANCE.schedule(
+                () -> task.completeExceptionally(new TimeoutException("Timed out generating work for " + root)),
+                timeout, unit);
+            task.whenComplete((work, e) -> timer.cancel(false));
+        }
+        return task;
+    }
+
+    /**
+     * @return the number of hashes computed across every request.
+     */
+    public long getHashes() {
+        return hashes.sum();
+    }
+
+    /**
+     * @return the hashes per second achieved across all threads while working.
+     */
+    public double getHashRate() {
+        long busy = busyNanos.sum();
+        return busy > 0 ? hashes.sum() * threads * 1e9 / busy : 0;
+    }
+
+    /**
+     * @return the number of requests queued or in progress.
+     */
+    public int getPendingTasks() {
+        return tasks.size();
+    }
+
+    /**
+     * Stops every thread and cancels requests which have not completed.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        for (Task task : tasks) {
+            task.cancel(false);
+        }
+    }
+
+    private void search(Task task) {
+        if (task.isDone()) {
+            return;
+        }
+        task.started();
+        Blake2b blake2b = BLAKE2B.get();
+        byte[] input = task.input.clone();
+        long threshold = task.threshold;
+        long nonce = ThreadLocalRandom.current().nextLong();
+        long start = System.nanoTime();
+        try {
+            while (!task.isDone() && !Thread.currentThread().isInterrupted()) {
+                for (int i = 0; i < CHECK_INTERVAL; i++, nonce++) {
+                    if (ProofOfWork.meets(ProofOfWork.value(blake2b, input, nonce), threshold)) {
+                        record(task, i + 1);
+                        task.complete(ProofOfWork.format(nonce));
+                        return;
+                    }
+                }
+                record(task, CHECK_INTERVAL);
+            }
+        } finally {
+            busyNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private void record(Task task, long count) {
+        task.hashes.add(count);
+        hashes.add(count);
+    }
+
+    /**
+     * A request for work, which completes with the work as 16 hexadecimal
+     * digits. Cancelling it stops the search.
+     */
+    public static final class Task extends CompletableFuture<String> {
+
+        private final String root;
+        private final long threshold;
+        private final byte[] input;
+        private final LongAdder hashes = new LongAdder();
+        private final AtomicLong startNanos = new AtomicLong();
+        private volatile long endNanos;
+
+        private Task(String root, long threshold, byte[] input) {
+            this.root = root;
+            this.threshold = threshold;
+            this.input = input;
+            whenComplete((work, e) -> endNanos = System.nanoTime());
+        }
+
+        public String getRoot() {
+            return root;
+        }
+
+        /**
+         * @return the number of hashes computed so far.
+         */
+        public long getHashes() {
+            return hashes.sum();
+        }
+
+        /**
+         * Returns the hashes computed as a fraction of the number expected to
+         * be needed. Finding work is random, so this is only an estimate and
+         * may exceed 1.
+         */
+        public double getProgress() {
+            return hashes.sum() / ProofOfWork.expectedHashes(threshold);
+        }
+
+        /**
+         * @return the hashes per second since the search started.
+         */
+        public double getHashRate() {
+            long start = startNanos.get();
+            if (start == 0) {
+                return 0;
+            }
+            long end = endNanos != 0 ? endNanos : System.nanoTime();
+            return end > start ? hashes.sum() * 1e9 / (end - start) : 0;
+        }
+
+        private void started() {
+            startNanos.compareAndSet(0, System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package org.nano.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Computes proof of work ahead of time for the next block of a set of
+ * accounts, so that sends and receives from them do not wait for work.
+ * <p>
+ * The frontier of every account is polled with a single accounts_frontiers
+ * request. Whenever it moves, work for the new frontier is generated, either
+ * locally with a {@link WorkGenerator} or by the node's work_generate, and
+ * kept in a bounded cache. Blocks created through the client update the
+ * frontier immediately rather than waiting for the next poll. Unopened
+ * accounts are given work for their public key, ready for the open block.
+ * <p>
+ * Register a precache with {@link NanoClient.Builder#workPrecache(WorkPrecache)}.
+ * It then runs until {@link #close()} is called.
+ */
+public class WorkPrecache implements AutoCloseable {
+
+    private final List<String> accounts;
+    private final WorkGenerator generator;
+    private final long refreshNanos;
+    private final Map<String, String> cache;
+    private final Map<String, String> roots = new ConcurrentHashMap<>();
+    private final Set<String> generating = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService executor;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile NanoClient client;
+    private volatile AsyncNanoClient asyncClient;
+
+    private WorkPrecache(Builder builder) {
+        this.accounts = Collections.unmodifiableList(new ArrayList<>(builder.accounts));
+        this.generator = builder.generator;
+        this.refreshNanos = builder.refreshNanos;
+        int maxEntries = builder.maxEntries;
+        this.cache = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "nano-work-precache");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Starts polling frontiers through the client.
+     */
+    void start(NanoClient client) {
+        if (this.client != null) {
+            throw new IllegalStateException("Work precache is already used by another client");
+        }
+        this.client = client;
+        this.asyncClient = new AsyncNanoClient(client);
+        executor.scheduleWithFixedDelay(this::refresh, 0, refreshNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the work for the account's current frontier. The work stays
+     * cached until {@link #updated(String, String)} records the block which
+     * uses it, so it is still there if the block is not created.
+     *
+     * @param account the account about to create a block.
+     * @return the work, or null if none is ready.
+     */
+    public String take(String account) {
+        String root = roots.get(account);
+        String work = null;
+        if (root != null) {
+            synchronized (cache) {
+                work = cache.get(root);
+            }
+        }
+        if (work != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return work;
+    }
+
+    /**
+     * Records a block created for an account, and starts generating work
+     * for the block after it.
+     *
+     * @param account the account the block belongs to.
+     * @param block   the hash of the new block.
+     */
+    public void updated(String account, String block) {
+        if (block == null || !roots.containsKey(account)) {
+            return;
+        }
+        String previous = roots.put(account, block);
+        if (!block.equals(previous)) {
+            discard(previous);
+            precache(account, block);
+        }
+    }
+
+    /**
+     * Drops work for an account which the node rejected, so that the next
+     * refresh generates it again.
+     *
+     * @param account the account the work was taken for.
+     * @param work    the rejected work.
+     */
+    void rejected(String account, String work) {
+        String root = roots.get(account);
+        if (root != null) {
+            synchronized (cache) {
+                cache.remove(root, work);
+            }
+        }
+    }
+
+    /**
+     * @return the number of calls to {@link #take(String)} which found work.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of calls to {@link #take(String)} which found none.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of roots which have work ready.
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    void refresh() {
+        NanoClient client = this.client;
+        if (client == null || accounts.isEmpty()) {
+            return;
+        }
+        Map<String, String> frontiers = new HashMap<>();
+        try {
+            for (AccountFrontier frontier : client.getAccountsFrontiers(accounts).getFrontiers()) {
+                frontiers.put(frontier.getAddress(), frontier.getBlock());
+            }
+        } catch (NanoException e) {
+            // Try again at the next refresh.
+            return;
+        }
+        for (String account : accounts) {
+            String root = frontiers.get(account);
+            if (root == null) {
+                // The account has not been opened, so its next block is rooted at its key.
+                try {
+                    root = AddressCodec.decode(account);
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+            }
+            String previous = roots.put(account, root);
+            if (!root.equals(previous)) {
+                discard(previous);
+            }
+            // Also retries work which failed to generate or was rejected.
+            precache(account, root);
+        }
+    }
+
+    private void discard(String root) {
+        if (root != null) {
+            synchronized (cache) {
+                cache.remove(root);
+            }
+        }
+    }
+
+    private void precache(String account, String root) {
+        synchronized (cache) {
+            if (cache.containsKey(root)) {
+                return;
+            }
+        }
+        if (!generating.add(root)) {
+            return;
+        }
+        CompletableFuture<String> work = generator != null
+            ? generator.generate(root)
+            : asyncClient.generateWork(root).thenApply(WorkGenerate::getWork);
+        work.whenComplete((w, e) -> {
+            generating.remove(root);
+            // Work for a frontier which has since moved is no longer useful.
+            if (w != null && root.equals(roots.get(account))) {
+                synchronized (cache) {
+                    cache.put(root, w);
+                }
+            }
+        });
+    }
+
+    public static class Builder {
+
+        private final List<String> accounts = new ArrayList<>();
+        private WorkGenerator generator;
+        private int maxEntries = 1000;
+        private long refreshNanos = TimeUnit.SECONDS.toNanos(10);
+
+        Builder() {
+        }
+
+        /**
+         * @param accounts the accounts to precache work for.
+         */
+        public Builder accounts(List<String> accounts) {
+            this.accounts.addAll(accounts);
+            return this;
+        }
+
+        /**
+         * Generates work locally rather than with the node's work_generate.
+         *
+         * @param generator the generator to use, which is not closed with the precache.
+         */
+        public Builder generator(WorkGenerator generator) {
+            this.generator = generator;
+            return this;
+        }
+
+        /**
+         * @param maxEntries the maximum number of roots to hold work for, defaults to 1000.
+         */
+        public Builder maxEntries(int maxEntries) {
+            if (maxEntries < 1) {
+                throw new IllegalArgumentException("maxEntries must be at least 1");
+            }
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * @param interval how often to poll frontiers, defaults to 10 seconds.
+         * @param unit     the unit of interval.
+         */
+        public Builder refreshInterval(long interval, TimeUnit unit) {
+            this.refreshNanos = unit.toNanos(interval);
+            return this;
+        }
+
+        public WorkPrecache build() {
+            return new WorkPrecache(this);
+        }
+    }
+}
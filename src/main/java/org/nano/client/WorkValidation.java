@@ -0,0 +1,10 @@
+package org.nano.client;
+
+class WorkValidation extends BaseResponse {
+
+    private String valid;
+
+    public boolean isValid() {
+        return "1".equals(valid);
+    }
+}
@@ -0,0 +1,53 @@
+package org.nano.client;
+
+/**
+ * Checks proof of work locally. Validating work is a single Blake2b hash, so
+ * this takes well under a microsecond and never contacts a node.
+ */
+public final class WorkValidator {
+
+    private static final ThreadLocal<Blake2b> BLAKE2B = ThreadLocal.withInitial(() -> new Blake2b(8));
+    private static final ThreadLocal<byte[]> INPUT = ThreadLocal.withInitial(() -> new byte[ProofOfWork.INPUT_LENGTH]);
+
+    private WorkValidator() {
+    }
+
+    /**
+     * @param work the work as hexadecimal digits.
+     * @param root the previous block hash, or the public key for an open block.
+     * @return whether the work meets the network's default threshold.
+     * @throws IllegalArgumentException if the work or root is malformed.
+     */
+    public static boolean isValid(String work, String root) {
+        return isValid(work, root, ProofOfWork.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param work      the work as hexadecimal digits.
+     * @param root      the previous block hash, or the public key for an open block.
+     * @param threshold the minimum work value, as an unsigned number.
+     * @return whether the work meets the threshold.
+     * @throws IllegalArgumentException if the work or root is malformed.
+     */
+    public static boolean isValid(String work, String root, long threshold) {
+        return ProofOfWork.meets(value(work, root), threshold);
+    }
+
+    /**
+     * @param work the work as hexadecimal digits.
+     * @param root the previous block hash, or the public key for an open block.
+     * @return the work value, as an unsigned number.
+     * @throws IllegalArgumentException if the work or root is malformed.
+     */
+    public static long value(String work, String root) {
+        return value(ProofOfWork.parse(work), root);
+    }
+
+    static long value(long nonce, String root) {
+        byte[] input = INPUT.get();
+        if (!Hex.decode(root, input, 8, ProofOfWork.ROOT_LENGTH)) {
+            throw new IllegalArgumentException("Invalid root: " + root);
+        }
+        return ProofOfWork.value(BLAKE2B.get(), input, nonce);
+    }
+}
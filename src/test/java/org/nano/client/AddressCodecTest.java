@@ -0,0 +1,76 @@
+package org.nano.client;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AddressCodecTest {
+
+    private static final String ACCOUNT = "xrb_3t6k35gi95xu6tergt6p69ck76ogmitsa8mnijtpxm9fkcm736xtoncuohr3";
+    private static final String PUBLIC_KEY = "E89208DD038FBB269987689621D52292AE9C35941A7484756ECCED92A65093BA";
+    private static final String BURN_ACCOUNT = "xrb_1111111111111111111111111111111111111111111111111111hifc8npp";
+    private static final String BURN_KEY = "0000000000000000000000000000000000000000000000000000000000000000";
+
+    @Test
+    public void testEncode() throws Exception {
+        assertEquals(ACCOUNT, AddressCodec.encode(PUBLIC_KEY));
+        assertEquals(ACCOUNT, AddressCodec.encode(PUBLIC_KEY.toLowerCase()));
+        assertEquals(BURN_ACCOUNT, AddressCodec.encode(BURN_KEY));
+        assertEquals(ACCOUNT, AddressCodec.encode(Hex.decode(PUBLIC_KEY)));
+    }
+
+    @Test
+    public void testDecode() throws Exception {
+        assertEquals(PUBLIC_KEY, AddressCodec.decode(ACCOUNT));
+        assertEquals(BURN_KEY, AddressCodec.decode(BURN_ACCOUNT));
+        assertEquals(PUBLIC_KEY, AddressCodec.decode("nano_" + ACCOUNT.substring(4)));
+    }
+
+    @Test
+    public void testValidation() throws Exception {
+        assertTrue(AddressCodec.isValid(ACCOUNT));
+        assertFalse(AddressCodec.isValid(null));
+        assertFalse(AddressCodec.isValid(ACCOUNT.substring(1)));
+        assertFalse(AddressCodec.isValid(ACCOUNT.replace("xrb_", "xrc_")));
+        assertFalse(AddressCodec.isValid(ACCOUNT.substring(0, ACCOUNT.length() - 1) + "4"));
+        assertFalse(AddressCodec.isValid(ACCOUNT.replace('k', 'l')));
+        assertFalse(AddressCodec.isValid("xrb_4" + ACCOUNT.substring(5)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeInvalid() throws Exception {
+        AddressCodec.decode(ACCOUNT.replace('3', '4'));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEncodeInvalid() throws Exception {
+        AddressCodec.encode(PUBLIC_KEY.substring(2) + "ZZ");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEncodeNonAsciiDigits() throws Exception {
+        // Arabic-Indic digits, which Character.digit accepts.
+        AddressCodec.encode(PUBLIC_KEY.substring(2) + "\u0661\u0662");
+    }
+
+    @Test
+    public void testBulk() throws Exception {
+        String[] keys = {PUBLIC_KEY, BURN_KEY, PUBLIC_KEY};
+        String[] accounts = new String[keys.length];
+        AddressCodec.encode(keys, accounts);
+        assertArrayEquals(new String[]{ACCOUNT, BURN_ACCOUNT, ACCOUNT}, accounts);
+
+        String[] decoded = new String[accounts.length];
+        AddressCodec.decode(accounts, decoded);
+        assertArrayEquals(keys, decoded);
+
+        byte[] packed = new byte[accounts.length * 32];
+        AddressCodec.decode(accounts, packed);
+        String[] encoded = new String[accounts.length];
+        AddressCodec.encode(packed, encoded);
+        assertArrayEquals(accounts, encoded);
+    }
+}
@@ -0,0 +1,191 @@
+package org.nano.client;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AsyncNanoClientTest {
+
+    private static final String ACCOUNT = "xrb_3t6k35gi95xu6tergt6p69ck76ogmitsa8mnijtpxm9fkcm736xtoncuohr3";
+    private static final String WALLET = "000D1BAEC8EC208142C99059B393051BAC8380F9B5A2E6B2489A277D81789F3F";
+
+    private HttpClient httpClient;
+    private AsyncNanoClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        httpClient = mock(HttpClient.class);
+        client = new AsyncNanoClient(new NanoClient(httpClient));
+    }
+
+    @Test
+    public void testGetAccountBalance() throws Exception {
+        expectJson("account_balance");
+
+        Balance balance = client.getAccountBalance(ACCOUNT).get();
+        assertEquals("325586539664609129644855132177", balance.getBalance());
+        assertEquals(ACCOUNT, balance.getAccount());
+        assertEquals("2309370940000000000000000000000000", balance.getPending());
+    }
+
+    @Test
+    public void testGetAccountBalanceWhenAccountNotFound() throws Exception {
+        expectJson("account_balance_not_found");
+
+        try {
+            client.getAccountBalance(ACCOUNT).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof NanoException);
+            assertEquals("Bad account number", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testWhenCantConnectToNode() throws Exception {
+        CompletableFuture<ResponseBody> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IOException());
+        when(httpClient.postAsync(anyString())).thenReturn(failed);
+
+        try {
+            client.createAccount(WALLET).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof NanoException);
+            assertEquals("Unable to communicate with node", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testMraiFromRaw() throws Exception {
+        assertEquals("1", client.mraiFromRaw("1000000000000000000000000000000").get());
+    }
+
+    @Test
+    public void testMraiFromRawExact() throws Exception {
+        assertEquals("1.5", client.mraiFromRawExact("1500000000000000000000000000000").get());
+    }
+
+    @Test
+    public void testWalletContainsAccount() throws Exception {
+        expectJson("existence_true");
+
+        assertTrue(client.walletContainsAccount(WALLET, ACCOUNT).get());
+    }
+
+    @Test
+    public void testCoalescesIdenticalReads() throws Exception {
+        client = new AsyncNanoClient(NanoClient.builder().coalesceReads(true).build(httpClient));
+        CompletableFuture<ResponseBody> response = new CompletableFuture<>();
+        when(httpClient.postAsync(anyString())).thenReturn(response);
+
+        CompletableFuture<BlockCount> first = client.getBlockCount();
+        CompletableFuture<BlockCount> second = client.getBlockCount();
+        response.complete(loadJson("block_count"));
+
+        assertSame(first.get(), second.get());
+        verify(httpClient, times(1)).postAsync(anyString());
+
+        when(httpClient.postAsync(anyString())).thenReturn(CompletableFuture.completedFuture(loadJson("block_count")));
+        client.getBlockCount().get();
+        verify(httpClient, times(2)).postAsync(anyString());
+    }
+
+    @Test
+    public void testCoalescingRecoversFromThrowingCall() throws Exception {
+        NanoClient blocking = NanoClient.builder().coalesceReads(true).build(httpClient);
+        when(httpClient.post(anyString())).thenThrow(new IllegalStateException("No node available"))
+            .thenAnswer(invocation -> loadJson("block_count"));
+
+        try {
+            blocking.getBlockCount();
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("No node available", e.getMessage());
+        }
+        assertEquals("1000", blocking.getBlockCount().getCount());
+        verify(httpClient, times(2)).post(anyString());
+    }
+
+    @Test
+    public void testDoesNotCoalesceWrites() throws Exception {
+        client = new AsyncNanoClient(NanoClient.builder().coalesceReads(true).build(httpClient));
+        CompletableFuture<ResponseBody> response = new CompletableFuture<>();
+        when(httpClient.postAsync(anyString())).thenReturn(response);
+
+        client.send(WALLET, ACCOUNT, ACCOUNT, "1");
+        client.send(WALLET, ACCOUNT, ACCOUNT, "1");
+        verify(httpClient, times(2)).postAsync(anyString());
+    }
+
+    @Test
+    public void testBatchesBalanceLookups() throws Exception {
+        client = new AsyncNanoClient(NanoClient.builder().batchBalances(2, 1, TimeUnit.HOURS).build(httpClient));
+        expectJson("account_balances");
+
+        CompletableFuture<Balance> first = client.getAccountBalance("xrb_3e3j5tkog48pnny9dmfzj1r16pg8t1e76dz5tmac6iq689wyjfpi00000000");
+        CompletableFuture<Balance> second = client.getAccountBalance("xrb_3i1aq1cchnmbn9x5rsbap8b15akfh7wj7pwskuzi7ahz8oq6cobd99d4r3b7");
+
+        assertEquals("10000", first.get().getBalance());
+        assertEquals("xrb_3e3j5tkog48pnny9dmfzj1r16pg8t1e76dz5tmac6iq689wyjfpi00000000", first.get().getAccount());
+        assertEquals("xrb_3i1aq1cchnmbn9x5rsbap8b15akfh7wj7pwskuzi7ahz8oq6cobd99d4r3b7", second.get().getAccount());
+        verify(httpClient, times(1)).postAsync(contains("accounts_balances"));
+    }
+
+    @Test
+    public void testBatchFlushesAfterWindow() throws Exception {
+        NanoClient blocking = NanoClient.builder().batchBalances(100, 1, TimeUnit.MILLISECONDS).build(httpClient);
+        expectJson("account_balance");
+
+        assertEquals("325586539664609129644855132177", blocking.getAccountBalance(ACCOUNT).getBalance());
+        verify(httpClient, times(1)).postAsync(contains("account_balance"));
+    }
+
+    @Test
+    public void testRejectedBatchFallsBackToSingleLookups() throws Exception {
+        client = new AsyncNanoClient(NanoClient.builder().batchBalances(2, 1, TimeUnit.HOURS).build(httpClient));
+        when(httpClient.postAsync(contains(ACCOUNT))).thenReturn(CompletableFuture.completedFuture(loadJson("account_balance")));
+        when(httpClient.postAsync(contains("bad"))).thenReturn(CompletableFuture.completedFuture(loadJson("account_balance_not_found")));
+        when(httpClient.postAsync(contains("accounts_balances"))).thenReturn(CompletableFuture.completedFuture(loadJson("account_balance_not_found")));
+
+        CompletableFuture<Balance> good = client.getAccountBalance(ACCOUNT);
+        CompletableFuture<Balance> bad = client.getAccountBalance("bad");
+
+        assertEquals("325586539664609129644855132177", good.get().getBalance());
+        try {
+            bad.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertEquals("Bad account number", e.getCause().getMessage());
+        }
+    }
+
+    private void expectJson(String name) throws IOException {
+        when(httpClient.postAsync(anyString())).thenReturn(CompletableFuture.completedFuture(loadJson(name)));
+    }
+
+    private ResponseBody loadJson(String name) {
+        String filename = "json/" + name + ".json";
+        InputStream stream = this.getClass().getClassLoader().getResourceAsStream(filename);
+        return ResponseBody.create(MediaType.parse("application/json"), new Scanner(stream).useDelimiter("\\A").next());
+    }
+}
@@ -0,0 +1,91 @@
+package org.nano.client;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class Blake2bTest {
+
+    @Test
+    public void testRfc7693Vector() throws Exception {
+        Blake2b blake2b = new Blake2b(64);
+        blake2b.update("abc".getBytes(StandardCharsets.US_ASCII));
+        assertEquals("BA80A53F981C4D0D6A2797B69F12F6E94C212F14685AC4B74B12BB6FDBFFA2D1"
+            + "7D87C5392AAB792DC252D5DE4533CC9518D38AA8DBF1925AB92386EDD4009923", Hex.encode(blake2b.digest()));
+    }
+
+    @Test
+    public void testReferenceVectors() throws Exception {
+        assertDigest(0, 64, "786A02F742015903C6C6FD852552D272912F4740E15847618A86E217F71F5419"
+            + "D25E1031AFEE585313896444934EB04B903A685B1448B755D56F701AFE9BE2CE");
+        assertDigest(0, 32, "0E5751C026E543B2E8AB2EB06099DAA1D1E5DF47778F7787FAAB45CDF12FE3A8");
+        assertDigest(3, 64, "40A374727302D9A4769C17B5F409FF32F58AA24FF122D7603E4FDA1509E919D4"
+            + "107A52C57570A6D94E50967AEA573B11F86F473F537565C66F7039830A85D186");
+        assertDigest(127, 32, "F2FE67FF342E21B8F45E8F2E0BCD1D9243245D50EE6C78042E9C491388791C72");
+        assertDigest(128, 32, "C3582F71EBB2BE66FA5DD750F80BAAE97554F3B015663C8BE377CFCB2488C1D1");
+        assertDigest(129, 32, "F7F3C46BA2564FF4C4C162DA1F5B605F9F1C4AA6A20652A9F9A337C1A2F5B9C9");
+        assertDigest(255, 64, "FE2C02DA499516B0E9FB2DD70C49EB3629039F632E20A880946FB7BC97A7AB09"
+            + "DEB7D48774D7F0648141C9D9EDE19AE6E0DBF07863A128CF4B00195F0F179F74");
+        assertDigest(256, 64, "93463AC058B6163EB43BE3F5BB32B28541498F4E3366F1EFFE253AD44E1E076E"
+            + "41C3616046027C82A7124F8F4746668AD10B12E8E25A95AC8F3151DF01CD5A93");
+        assertDigest(1000, 32, "B372D0608F720C8C3DD41E9C8EECB10143B41ABE520B616607E754BF79C08331");
+        assertDigest(1000, 8, "669CA836A838577F");
+        assertDigest(1000, 5, "2EE1251AC8");
+        assertDigest(1000, 1, "B7");
+    }
+
+    @Test
+    public void testIncrementalUpdates() throws Exception {
+        byte[] input = pattern(1000);
+        Blake2b blake2b = new Blake2b(32);
+        for (int split : new int[]{1, 7, 127, 128, 129, 500}) {
+            for (int offset = 0; offset < input.length; offset += split) {
+                blake2b.update(input, offset, Math.min(split, input.length - offset));
+            }
+            assertEquals("B372D0608F720C8C3DD41E9C8EECB10143B41ABE520B616607E754BF79C08331", Hex.encode(blake2b.digest()));
+        }
+        for (byte b : input) {
+            blake2b.update(b);
+        }
+        assertEquals("B372D0608F720C8C3DD41E9C8EECB10143B41ABE520B616607E754BF79C08331", Hex.encode(blake2b.digest()));
+    }
+
+    @Test
+    public void testReset() throws Exception {
+        Blake2b blake2b = new Blake2b(32);
+        blake2b.update(pattern(300));
+        blake2b.reset();
+        blake2b.update(pattern(129));
+        assertEquals("F7F3C46BA2564FF4C4C162DA1F5B605F9F1C4AA6A20652A9F9A337C1A2F5B9C9", Hex.encode(blake2b.digest()));
+    }
+
+    @Test
+    public void testDigestLong() throws Exception {
+        Blake2b blake2b = new Blake2b(8);
+        blake2b.update(pattern(1000));
+        assertEquals(0x7F5738A836A89C66L, blake2b.digestLong());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidDigestLength() throws Exception {
+        new Blake2b(65);
+    }
+
+    private static void assertDigest(int inputLength, int digestLength, String expected) {
+        Blake2b blake2b = new Blake2b(digestLength);
+        blake2b.update(pattern(inputLength));
+        byte[] out = new byte[digestLength + 2];
+        blake2b.digest(out, 1);
+        assertEquals(expected, Hex.encode(out, 1, digestLength));
+    }
+
+    private static byte[] pattern(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (i % 251);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,157 @@
+package org.nano.client;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BlockCacheTest {
+
+    private static final String ACCOUNT = "xrb_1e5aqegc1jb7qe964u4adzmcezyo6o146zb8hm6dft8tkp79za3sxwjym5rx";
+    private static final String OPEN = hash('1');
+    private static final String SECOND = hash('2');
+    private static final String THIRD = hash('3');
+    private static final String FOURTH = hash('4');
+
+    private HttpClient httpClient;
+    private BlockCache cache;
+    private NanoClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        httpClient = mock(HttpClient.class);
+        cache = BlockCache.builder().build();
+        client = NanoClient.builder().blockCache(cache).build(httpClient);
+    }
+
+    @Test
+    public void testBlockAccount() throws Exception {
+        when(httpClient.post(contains("block_account"))).thenAnswer(invocation -> json("{\"account\":\"" + ACCOUNT + "\"}"));
+
+        assertEquals(ACCOUNT, client.getBlockAccount(THIRD).getAccount());
+        assertEquals(ACCOUNT, client.getBlockAccount(THIRD).getAccount());
+        assertEquals(ACCOUNT, client.getBlockAccount(THIRD.toLowerCase()).getAccount());
+        verify(httpClient, times(1)).post(anyString());
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testChainWalkedOnce() throws Exception {
+        when(httpClient.post(contains("chain"))).thenAnswer(invocation -> chain(FOURTH, THIRD, SECOND, OPEN));
+
+        assertEquals(Arrays.asList(FOURTH, THIRD, SECOND, OPEN), client.getChain(FOURTH, 10).getBlocks());
+        assertEquals(Arrays.asList(FOURTH, THIRD, SECOND, OPEN), client.getChain(FOURTH, 10).getBlocks());
+        assertEquals(Arrays.asList(THIRD, SECOND), client.getChain(THIRD, 2).getBlocks());
+        verify(httpClient, times(1)).post(anyString());
+        assertEquals(4, cache.size());
+    }
+
+    @Test
+    public void testChainContinuesFromCache() throws Exception {
+        when(httpClient.post(contains(FOURTH))).thenAnswer(invocation -> chain(FOURTH, THIRD));
+        when(httpClient.post(contains(THIRD))).thenAnswer(invocation -> chain(THIRD, SECOND, OPEN));
+
+        // one extra block is fetched, so the link from FOURTH is learned
+        assertEquals(Collections.singletonList(FOURTH), client.getChain(FOURTH, 1).getBlocks());
+        assertEquals(Arrays.asList(FOURTH, THIRD, SECOND, OPEN), client.getChain(FOURTH, 4).getBlocks());
+        verify(httpClient).post(contains("\"block\":\"" + THIRD + "\""));
+        verify(httpClient, times(2)).post(anyString());
+        assertEquals(Arrays.asList(FOURTH, THIRD, SECOND, OPEN), client.getChain(FOURTH, 4).getBlocks());
+        verify(httpClient, times(2)).post(anyString());
+    }
+
+    @Test
+    public void testAsyncChain() throws Exception {
+        AsyncNanoClient async = new AsyncNanoClient(client);
+        when(httpClient.postAsync(contains("chain")))
+            .thenAnswer(invocation -> CompletableFuture.completedFuture(chain(SECOND, OPEN)));
+
+        assertEquals(Arrays.asList(SECOND, OPEN), async.getChain(SECOND, 5).get().getBlocks());
+        assertEquals(Arrays.asList(SECOND, OPEN), async.getChain(SECOND, 5).get().getBlocks());
+        assertEquals(Arrays.asList(SECOND, OPEN), client.getChain(SECOND, 5).getBlocks());
+        verify(httpClient, times(1)).postAsync(anyString());
+        verify(httpClient, times(0)).post(anyString());
+    }
+
+    @Test
+    public void testWalk() {
+        cache.putChain(Arrays.asList(THIRD, SECOND, OPEN), 10);
+
+        List<String> blocks = new ArrayList<>();
+        assertNull(cache.walk(THIRD, 10, blocks));
+        assertEquals(Arrays.asList(THIRD, SECOND, OPEN), blocks);
+
+        blocks.clear();
+        assertEquals(FOURTH, cache.walk(FOURTH, 10, blocks));
+        assertTrue(blocks.isEmpty());
+    }
+
+    @Test
+    public void testGrowsOffHeap() {
+        BlockCache cache = BlockCache.builder().offHeap(true).build();
+        long initial = cache.getMemoryUsage();
+        List<String> hashes = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String part = String.format("%016X", i * 0x9E3779B97F4A7C15L);
+            hashes.add(part + part + part + part);
+        }
+        cache.putChain(hashes, hashes.size() + 1);
+
+        assertEquals(5000, cache.size());
+        assertTrue(cache.getMemoryUsage() > initial);
+        List<String> blocks = new ArrayList<>();
+        assertNull(cache.walk(hashes.get(0), Integer.MAX_VALUE, blocks));
+        assertEquals(hashes, blocks);
+    }
+
+    @Test
+    public void testFullCacheKeepsEntries() {
+        BlockCache cache = BlockCache.builder().maxEntries(2).build();
+        cache.putAccount(OPEN, ACCOUNT);
+        cache.putAccount(SECOND, ACCOUNT);
+        cache.putAccount(THIRD, ACCOUNT);
+
+        assertEquals(2, cache.size());
+        assertEquals(ACCOUNT, cache.getAccount(OPEN));
+        assertNull(cache.getAccount(THIRD));
+    }
+
+    @Test
+    public void testIgnoresInvalidHashes() {
+        cache.putChain(Collections.singletonList("not a hash"), 2);
+        cache.putAccount("not a hash", ACCOUNT);
+        assertEquals(0, cache.size());
+        assertNull(cache.getAccount("not a hash"));
+    }
+
+    private static String hash(char c) {
+        char[] chars = new char[64];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    private static ResponseBody chain(String... blocks) {
+        return json("{\"blocks\":[\"" + String.join("\",\"", blocks) + "\"]}");
+    }
+
+    private static ResponseBody json(String json) {
+        return ResponseBody.create(MediaType.parse("application/json"), json);
+    }
+}
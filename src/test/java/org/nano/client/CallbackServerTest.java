@@ -0,0 +1,151 @@
+package org.nano.client;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CallbackServerTest {
+
+    private static final String ACCOUNT = "xrb_1e5aqegc1jb7qe964u4adzmcezyo6o146zb8hm6dft8tkp79za3sxwjym5rx";
+    private static final String HASH = "790308E9C5ED9B6BC1D6B7C2C2FCB8F1C8D7D1F2C0E9A2C56FE2A51C8E8C1E5D";
+    private static final String STATE_BLOCK = "{\"type\":\"state\",\"account\":\"" + ACCOUNT + "\","
+        + "\"previous\":\"FC5A7FB777110A858052468D448B2DF22B648943C097C0608D1E2341007438B0\","
+        + "\"representative\":\"" + ACCOUNT + "\",\"balance\":\"5000000000000000000000000000001\","
+        + "\"link\":\"0000000000000000000000000000000000000000000000000000000000000000\","
+        + "\"link_as_account\":\"xrb_1111111111111111111111111111111111111111111111111111hifc8npp\","
+        + "\"signature\":\"00\",\"work\":\"2bf29ef00786a6bc\"}";
+
+    private final BlockingQueue<BlockEvent> events = new LinkedBlockingQueue<>();
+    private CallbackServer server;
+
+    @After
+    public void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testBlockAsString() throws Exception {
+        server = CallbackServer.builder().listener(events::add).build();
+
+        String body = "{\"account\":\"" + ACCOUNT + "\",\"hash\":\"" + HASH + "\",\"block\":\""
+            + STATE_BLOCK.replace("\"", "\\\"") + "\",\"amount\":\"1000\",\"is_send\":\"true\"}";
+        assertEquals(200, post(body));
+
+        BlockEvent event = events.poll(5, TimeUnit.SECONDS);
+        assertEquals(ACCOUNT, event.getAccount());
+        assertEquals(HASH, event.getHash());
+        assertEquals("1000", event.getAmountRaw().toString());
+        assertTrue(event.isSend());
+        assertEquals("state", event.getBlock().getType());
+        assertEquals("5000000000000000000000000000001", event.getBlock().getBalance());
+        assertEquals("2bf29ef00786a6bc", event.getBlock().getWork());
+        assertEquals(1, server.getReceived());
+    }
+
+    @Test
+    public void testBlockAsObject() throws Exception {
+        server = CallbackServer.builder().path("/callback").listener(events::add).build();
+
+        String body = "{\"account\":\"" + ACCOUNT + "\",\"hash\":\"" + HASH + "\",\"block\":" + STATE_BLOCK
+            + ",\"amount\":\"0\",\"is_send\":false,\"subtype\":\"change\"}";
+        assertEquals(200, post("/callback", body));
+
+        BlockEvent event = events.poll(5, TimeUnit.SECONDS);
+        assertFalse(event.isSend());
+        assertEquals("change", event.getSubtype());
+        assertEquals(ACCOUNT, event.getBlock().getRepresentative());
+    }
+
+    @Test
+    public void testMalformed() throws Exception {
+        server = CallbackServer.builder().listener(events::add).build();
+
+        assertEquals(400, post("not json"));
+        assertEquals(400, post("[]"));
+        assertEquals(2, server.getMalformed());
+        assertEquals(0, server.getReceived());
+        assertNull(events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testDropsWhenFull() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        server = CallbackServer.builder()
+            .bufferSize(2)
+            .listener(event -> {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            })
+            .listener(events::add)
+            .build();
+
+        String body = "{\"account\":\"" + ACCOUNT + "\",\"hash\":\"" + HASH + "\"}";
+        assertEquals(200, post(body));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        // the dispatch thread is busy, so two blocks fill the buffer
+        assertEquals(200, post(body));
+        assertEquals(200, post(body));
+        assertEquals(503, post(body));
+        assertEquals(1, server.getDropped());
+        assertEquals(2, server.getQueued());
+
+        release.countDown();
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(events.poll(5, TimeUnit.SECONDS));
+        }
+        assertEquals(4, server.getReceived());
+    }
+
+    @Test
+    public void testListenerFailure() throws Exception {
+        server = CallbackServer.builder()
+            .listener(event -> {
+                throw new IllegalStateException();
+            })
+            .listener(events::add)
+            .build();
+
+        assertEquals(200, post("{\"hash\":\"" + HASH + "\"}"));
+        assertEquals(HASH, events.poll(5, TimeUnit.SECONDS).getHash());
+        assertEquals(1, server.getListenerFailures());
+    }
+
+    private int post(String body) throws IOException {
+        return post("/", body);
+    }
+
+    private int post(String path, String body) throws IOException {
+        URL url = new URL("http", server.getAddress().getHostString(), server.getAddress().getPort(), path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        int code = connection.getResponseCode();
+        connection.disconnect();
+        return code;
+    }
+}
@@ -0,0 +1,130 @@
+package org.nano.client;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ChunkedExecutorTest {
+
+    private static final List<String> ACCOUNTS = Arrays.asList("a", "b", "c", "d", "e");
+
+    private HttpClient httpClient;
+
+    @Before
+    public void setUp() throws Exception {
+        httpClient = mock(HttpClient.class);
+        when(httpClient.postAsync(anyString())).thenAnswer(invocation -> respond((String) invocation.getArguments()[0]));
+    }
+
+    @Test
+    public void testSplitsAndMergesInOrder() throws Exception {
+        NanoClient client = NanoClient.builder().chunkAccounts(2, 2).build(httpClient);
+
+        List<AccountFrontier> frontiers = client.getAccountsFrontiers(ACCOUNTS).getFrontiers();
+        assertEquals(5, frontiers.size());
+        for (int i = 0; i < ACCOUNTS.size(); i++) {
+            assertEquals(ACCOUNTS.get(i), frontiers.get(i).getAddress());
+            assertEquals("HASH_" + ACCOUNTS.get(i), frontiers.get(i).getBlock());
+        }
+        verify(httpClient, times(3)).postAsync(anyString());
+    }
+
+    @Test
+    public void testMergeDoesNotModifyChunkResponses() throws Exception {
+        ResponseCache cache = ResponseCache.builder().cache("accounts_frontiers", 1, TimeUnit.MINUTES, 10).build();
+        NanoClient client = NanoClient.builder().chunkAccounts(2, 2).responseCache(cache).build(httpClient);
+
+        assertEquals(5, client.getAccountsFrontiers(ACCOUNTS).getFrontiers().size());
+        // Served from the cached response of the first chunk.
+        assertEquals(2, client.getAccountsFrontiers(ACCOUNTS.subList(0, 2)).getFrontiers().size());
+        verify(httpClient, times(3)).postAsync(anyString());
+    }
+
+    @Test
+    public void testCallerMayReuseListWhileInFlight() throws Exception {
+        ResponseCache cache = ResponseCache.builder().cache("accounts_frontiers", 1, TimeUnit.MINUTES, 10).build();
+        AsyncNanoClient client = new AsyncNanoClient(NanoClient.builder()
+            .chunkAccounts(2, 1)
+            .coalesceReads(true)
+            .responseCache(cache)
+            .build(httpClient));
+        CompletableFuture<ResponseBody> first = new CompletableFuture<>();
+        doReturn(first).doAnswer(invocation -> respond((String) invocation.getArguments()[0]))
+            .when(httpClient).postAsync(anyString());
+        List<String> accounts = new ArrayList<>(ACCOUNTS);
+
+        CompletableFuture<AccountsFrontiers> frontiers = client.getAccountsFrontiers(accounts);
+        accounts.clear();
+        first.complete(respond("{\"accounts\":[\"a\",\"b\"]}").get());
+
+        assertEquals(5, frontiers.get().getFrontiers().size());
+        assertEquals("e", frontiers.get().getFrontiers().get(4).getAddress());
+    }
+
+    @Test
+    public void testSmallListIsSentInOneRequest() throws Exception {
+        NanoClient client = NanoClient.builder().chunkAccounts(10, 2).build(httpClient);
+
+        assertEquals(5, client.getAccountsFrontiers(ACCOUNTS).getFrontiers().size());
+        verify(httpClient, times(1)).postAsync(anyString());
+    }
+
+    @Test
+    public void testFailedChunkFailsRequest() throws Exception {
+        CompletableFuture<ResponseBody> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IOException());
+        doReturn(failed).when(httpClient).postAsync(anyString());
+        NanoClient client = NanoClient.builder().chunkAccounts(2, 2).build(httpClient);
+
+        try {
+            client.getAccountsFrontiers(ACCOUNTS);
+            fail();
+        } catch (NanoException e) {
+            assertEquals("Unable to communicate with node", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testAdaptsChunkSizeToLatency() throws Exception {
+        NanoClient client = NanoClient.builder()
+            .chunkAccounts(2, 1)
+            .adaptiveChunking(1, TimeUnit.HOURS)
+            .build(httpClient);
+        ChunkedExecutor executor = client.getChunkedExecutor();
+
+        client.getAccountsFrontiers(ACCOUNTS);
+        assertTrue(executor.currentChunkSize(AccountsFrontiers.class) > 2);
+    }
+
+    private static CompletableFuture<ResponseBody> respond(String json) {
+        JsonObject request = new JsonParser().parse(json).getAsJsonObject();
+        JsonObject frontiers = new JsonObject();
+        for (JsonElement account : request.getAsJsonArray("accounts")) {
+            frontiers.addProperty(account.getAsString(), "HASH_" + account.getAsString());
+        }
+        JsonObject response = new JsonObject();
+        response.add("frontiers", frontiers);
+        return CompletableFuture.completedFuture(ResponseBody.create(MediaType.parse("application/json"), response.toString()));
+    }
+}
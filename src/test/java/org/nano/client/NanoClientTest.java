@@ -1,5 +1,8 @@
 package org.nano.client;
 
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.ResponseBody;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -9,12 +12,16 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 public class NanoClientTest {
@@ -113,6 +120,21 @@ public class NanoClientTest {
 
     @Test
     public void testGetAccountPublicKey() throws Exception {
+        AccountPublicKey pk = client.getAccountPublicKey(ACCOUNT);
+        assertEquals("E89208DD038FBB269987689621D52292AE9C35941A7484756ECCED92A65093BA", pk.getKey());
+        verifyZeroInteractions(httpClient);
+    }
+
+    @Test
+    public void testGetAccountPublicKeyWithBadChecksum() throws Exception {
+        expectedException.expect(NanoException.class);
+        expectedException.expectMessage(BAD_ACCOUNT_NUMBER_ERROR);
+        client.getAccountPublicKey(ACCOUNT.substring(0, ACCOUNT.length() - 1) + "1");
+    }
+
+    @Test
+    public void testGetAccountPublicKeyFromNode() throws Exception {
+        client = NanoClient.builder().localAddressCodec(false).build(httpClient);
         expectJson("account_key");
 
         AccountPublicKey pk = client.getAccountPublicKey(ACCOUNT);
@@ -121,6 +143,14 @@ public class NanoClientTest {
 
     @Test
     public void testGetAccount() throws Exception {
+        AccountGet account = client.getAccount(PUBLIC_KEY);
+        assertEquals(ACCOUNT, account.getAccount());
+        verifyZeroInteractions(httpClient);
+    }
+
+    @Test
+    public void testGetAccountFromNode() throws Exception {
+        client = NanoClient.builder().localAddressCodec(false).build(httpClient);
         expectJson("account_get");
 
         AccountGet account = client.getAccount(PUBLIC_KEY);
@@ -272,52 +302,89 @@ public class NanoClientTest {
 
     @Test
     public void testMraiFromRaw() throws Exception {
-        expectJson("mrai_from_raw");
-
         String value = client.mraiFromRaw("1000000000000000000000000000000");
         assertEquals("1", value);
     }
 
     @Test
     public void testMraiToRaw() throws Exception {
-        expectJson("mrai_to_raw");
-
         String value = client.mraiToRaw("1");
         assertEquals("1000000000000000000000000000000", value);
     }
 
     @Test
     public void testKraiFromRaw() throws Exception {
-        expectJson("krai_from_raw");
-
         String value = client.kraiFromRaw("1000000000000000000000000000");
         assertEquals("1", value);
     }
 
     @Test
     public void testKraiToRaw() throws Exception {
-        expectJson("krai_to_raw");
-
         String value = client.kraiToRaw("1");
         assertEquals("1000000000000000000000000000", value);
     }
 
     @Test
     public void testRaiFromRaw() throws Exception {
-        expectJson("rai_from_raw");
-
         String value = client.raiFromRaw("1000000000000000000000000");
         assertEquals("1", value);
     }
 
     @Test
     public void testRaiToRaw() throws Exception {
-        expectJson("rai_to_raw");
-
         String value = client.raiToRaw("1");
         assertEquals("1000000000000000000000000", value);
     }
 
+    @Test
+    public void testMraiFromRawTruncates() throws Exception {
+        assertEquals("1", client.mraiFromRaw("1999999999999999999999999999999"));
+        assertEquals("0", client.mraiFromRaw("1"));
+        verifyZeroInteractions(httpClient);
+    }
+
+    @Test
+    public void testMraiFromRawExactKeepsFraction() throws Exception {
+        assertEquals("1.5", client.mraiFromRawExact("1500000000000000000000000000000"));
+        assertEquals("0.000000000000000000000000000001", client.mraiFromRawExact("1"));
+        assertEquals("0", client.mraiFromRawExact("0"));
+        assertEquals("1.5", client.kraiFromRawExact("1500000000000000000000000000"));
+        assertEquals("1.5", client.raiFromRawExact("1500000000000000000000000"));
+        verifyZeroInteractions(httpClient);
+    }
+
+    @Test
+    public void testMraiToRawAcceptsFraction() throws Exception {
+        assertEquals("1500000000000000000000000000000", client.mraiToRaw("1.5"));
+        assertEquals("340282366920938463463374607431768211455", client.raiToRaw("340282366920938.463463374607431768211455"));
+    }
+
+    @Test
+    public void testConversionOfBadAmount() throws Exception {
+        expectedException.expect(NanoException.class);
+        expectedException.expectMessage("Bad amount number");
+        client.mraiToRaw("0.0000000000000000000000000000001");
+    }
+
+    @Test
+    public void testConversionOfHugeExponentFailsFast() throws Exception {
+        expectedException.expect(NanoException.class);
+        expectedException.expectMessage("Bad amount number");
+        client.mraiToRaw("1E999999999");
+    }
+
+    @Test
+    public void testConversionIgnoresTrailingZeros() throws Exception {
+        assertEquals("1000000000000000000000000000000", client.mraiToRaw("1.00000000000000000000000000000000000000"));
+    }
+
+    @Test
+    public void testConversionOfAmountLargerThan128Bits() throws Exception {
+        expectedException.expect(NanoException.class);
+        expectedException.expectMessage("Bad amount number");
+        client.kraiFromRaw("340282366920938463463374607431768211456");
+    }
+
     @Test
     public void testWhenCantConnectToNode() throws Exception {
         when(httpClient.post(anyString())).thenThrow(new IOException());
@@ -327,6 +394,15 @@ public class NanoClientTest {
         client.createAccount(WALLET);
     }
 
+    @Test
+    public void testWhenResponseIsMalformed() throws Exception {
+        when(httpClient.post(anyString())).thenReturn(ResponseBody.create(MediaType.parse("application/json"), "{\"balance\": "));
+
+        expectedException.expect(NanoException.class);
+        expectedException.expectMessage("Unable to parse response from node");
+        client.getAccountBalance(ACCOUNT);
+    }
+
     @Test
     public void testReceive() throws Exception {
         expectJson("receive");
@@ -370,6 +446,7 @@ public class NanoClientTest {
         Representative rep = representatives.getRepresentatives().get(0);
         assertEquals("xrb_1111111111111111111111111111111111111111111111111117353trpda", rep.getAddress());
         assertEquals("3822372327060170000000000000000000000", rep.getAmount());
+        assertSame(rep, representatives.getRepresentatives().get(0));
     }
 
     @Test
@@ -438,6 +515,28 @@ public class NanoClientTest {
         assertFalse(contains);
     }
 
+    @Test
+    public void testValidateWork() throws Exception {
+        assertTrue(client.validateWork("2bf29ef00786a6bc", "718CC2121C3E641059BC1C2CFC45666C99E8AE922F7A807B7D07B62C995D79E2"));
+        assertFalse(client.validateWork("2bf29ef00786a6bd", "718CC2121C3E641059BC1C2CFC45666C99E8AE922F7A807B7D07B62C995D79E2"));
+        verifyZeroInteractions(httpClient);
+    }
+
+    @Test
+    public void testValidateWorkWithBadHash() throws Exception {
+        expectedException.expect(NanoException.class);
+        expectedException.expectMessage("Bad block hash");
+        client.validateWork("2bf29ef00786a6bc", "718CC2121C3E");
+    }
+
+    @Test
+    public void testValidateWorkWithNode() throws Exception {
+        client = NanoClient.builder().localWorkValidation(false).build(httpClient);
+        expectJson("work_validate");
+
+        assertTrue(client.validateWork("2bf29ef00786a6bc", "718CC2121C3E641059BC1C2CFC45666C99E8AE922F7A807B7D07B62C995D79E2"));
+    }
+
     @Test
     public void testGetWalletBalances() throws Exception {
         expectJson("wallet_balances");
@@ -449,13 +548,106 @@ public class NanoClientTest {
         assertEquals("10001", balances.getBalances().get(0).getPending());
     }
 
+    @Test
+    public void testListenerIsNotifiedOfSuccess() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        client = new NanoClient(httpClient, listener);
+        expectJson("block_count");
+
+        client.getBlockCount();
+        assertEquals("block_count", listener.action);
+        assertEquals("{\"action\":\"block_count\"}".length(), listener.requestLength);
+        assertTrue(listener.responseLength > 0);
+        assertTrue(listener.latencyNanos >= 0);
+        assertNull(listener.failure);
+    }
+
+    @Test
+    public void testListenerIsNotifiedOfFailure() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        client = new NanoClient(httpClient, listener);
+        when(httpClient.post(anyString())).thenThrow(new IOException());
+
+        try {
+            client.getBlockCount();
+        } catch (NanoException ignored) {
+        }
+        assertEquals("block_count", listener.action);
+        assertEquals(-1, listener.responseLength);
+        assertTrue(listener.failure.getCause() instanceof IOException);
+    }
+
+    @Test
+    public void testBuilderReusesSharedClient() throws Exception {
+        OkHttpClient shared = new OkHttpClient();
+
+        assertSame(shared, NanoClient.builder().okHttpClient(shared).buildOkHttpClient());
+    }
+
+    @Test
+    public void testBuilderTunesTransport() throws Exception {
+        OkHttpClient shared = new OkHttpClient();
+        OkHttpClient tuned = NanoClient.builder()
+            .okHttpClient(shared)
+            .readTimeout(2, TimeUnit.SECONDS)
+            .buildOkHttpClient();
+
+        assertSame(shared.connectionPool(), tuned.connectionPool());
+        assertSame(shared.dispatcher(), tuned.dispatcher());
+        assertEquals(2000, tuned.readTimeoutMillis());
+    }
+
+    @Test
+    public void testBuilderSetsRequestLimits() throws Exception {
+        OkHttpClient built = NanoClient.builder()
+            .maxRequestsPerHost(64)
+            .buildOkHttpClient();
+
+        assertEquals(64, built.dispatcher().getMaxRequestsPerHost());
+        assertEquals(new OkHttpClient().dispatcher().getMaxRequests(), built.dispatcher().getMaxRequests());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testBuilderDoesNotReplaceSuppliedDispatcher() throws Exception {
+        NanoClient.builder()
+            .okHttpClient(new OkHttpClient())
+            .maxRequestsPerHost(64)
+            .buildOkHttpClient();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testBuilderDoesNotReplaceSuppliedConnectionPool() throws Exception {
+        NanoClient.builder()
+            .okHttpClient(new OkHttpClient())
+            .connectionPool(20, 5, TimeUnit.MINUTES)
+            .buildOkHttpClient();
+    }
+
     private void expectJson(String name) throws IOException {
         when(httpClient.post(anyString())).thenReturn(loadJson(name));
     }
 
-    private String loadJson(String name) {
+    private ResponseBody loadJson(String name) {
         String filename = "json/" + name + ".json";
         InputStream stream = this.getClass().getClassLoader().getResourceAsStream(filename);
-        return new Scanner(stream).useDelimiter("\\A").next();
+        return ResponseBody.create(MediaType.parse("application/json"), new Scanner(stream).useDelimiter("\\A").next());
+    }
+
+    private static class RecordingListener implements RpcListener {
+
+        private String action;
+        private long requestLength;
+        private long responseLength;
+        private long latencyNanos;
+        private NanoException failure;
+
+        @Override
+        public void rpcCompleted(String action, long requestLength, long responseLength, long latencyNanos, NanoException failure) {
+            this.action = action;
+            this.requestLength = requestLength;
+            this.responseLength = responseLength;
+            this.latencyNanos = latencyNanos;
+            this.failure = failure;
+        }
     }
 }
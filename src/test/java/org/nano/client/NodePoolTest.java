@@ -0,0 +1,135 @@
+package org.nano.client;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class NodePoolTest {
+
+    private static final String WALLET = "000D1BAEC8EC208142C99059B393051BAC8380F9B5A2E6B2489A277D81789F3F";
+
+    private HttpClient first;
+    private HttpClient second;
+    private NodePool pool;
+    private ResponseBody body;
+
+    @Before
+    public void setUp() throws Exception {
+        first = mock(HttpClient.class);
+        second = mock(HttpClient.class);
+        pool = new NodePool(Arrays.asList(first, second), true);
+        body = ResponseBody.create(MediaType.parse("application/json"), "{}");
+    }
+
+    @Test
+    public void testPrefersFasterNode() throws Exception {
+        pool.node(0).succeeded(50_000_000);
+        pool.node(1).succeeded(1_000_000);
+        when(second.post(anyString())).thenReturn(body);
+
+        for (int i = 0; i < 10; i++) {
+            assertSame(body, pool.post(read(), "{}"));
+        }
+        verify(first, never()).post(anyString());
+    }
+
+    @Test
+    public void testReadFailsOverOnIOException() throws Exception {
+        when(first.post(anyString())).thenThrow(new SocketTimeoutException());
+        pool.node(0).succeeded(1_000_000);
+        pool.node(1).succeeded(50_000_000);
+        when(second.post(anyString())).thenReturn(body);
+
+        assertSame(body, pool.post(read(), "{}"));
+    }
+
+    @Test
+    public void testFailedNodeIsSkipped() throws Exception {
+        pool.node(0).failed();
+        when(second.post(anyString())).thenReturn(body);
+
+        for (int i = 0; i < 10; i++) {
+            pool.post(read(), "{}");
+        }
+        verify(first, never()).post(anyString());
+    }
+
+    @Test
+    public void testPinnedWriteDoesNotFailOver() throws Exception {
+        pool.node(0).succeeded(50_000_000);
+        pool.node(1).succeeded(1_000_000);
+        when(first.post(anyString())).thenThrow(new ConnectException());
+
+        try {
+            pool.post(send(), "{}");
+            fail();
+        } catch (ConnectException expected) {
+        }
+        verify(second, never()).post(anyString());
+    }
+
+    @Test
+    public void testUnpinnedWriteDoesNotFailOverAfterSending() throws Exception {
+        pool = new NodePool(Arrays.asList(first, second), false);
+        pool.node(0).succeeded(1_000_000);
+        pool.node(1).succeeded(50_000_000);
+        when(first.post(anyString())).thenThrow(new SocketTimeoutException());
+        when(second.post(anyString())).thenReturn(body);
+
+        try {
+            pool.post(send(), "{}");
+            fail();
+        } catch (SocketTimeoutException expected) {
+        }
+        verify(second, never()).post(anyString());
+    }
+
+    @Test
+    public void testUnpinnedWriteFailsOverWhenNotConnected() throws Exception {
+        pool = new NodePool(Arrays.asList(first, second), false);
+        when(first.post(anyString())).thenThrow(new ConnectException());
+        when(second.post(anyString())).thenThrow(new ConnectException());
+        try {
+            pool.post(send(), "{}");
+            fail();
+        } catch (ConnectException expected) {
+        }
+        verify(first).post(anyString());
+        verify(second).post(anyString());
+    }
+
+    @Test
+    public void testAsyncReadFailsOver() throws Exception {
+        CompletableFuture<ResponseBody> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IOException());
+        when(first.postAsync(anyString())).thenReturn(failed);
+        when(second.postAsync(anyString())).thenReturn(CompletableFuture.completedFuture(body));
+        pool.node(0).succeeded(1_000_000);
+        pool.node(1).succeeded(50_000_000);
+
+        assertSame(body, pool.postAsync(read(), "{}").get());
+    }
+
+    private static Request read() {
+        return Request.action("block_count").build();
+    }
+
+    private static Request send() {
+        return Request.action("send").param("wallet", WALLET).build();
+    }
+}
@@ -0,0 +1,198 @@
+package org.nano.client;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PrefetchingIteratorTest {
+
+    private static final String ACCOUNT = "xrb_1e5aqegc1jb7qe964u4adzmcezyo6o146zb8hm6dft8tkp79za3sxwjym5rx";
+
+    private final Map<String, String> pages = new HashMap<>();
+    private HttpClient httpClient;
+    private NanoClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        httpClient = mock(HttpClient.class);
+        when(httpClient.postAsync(contains("account_history"))).thenAnswer(invocation -> {
+            String request = (String) invocation.getArguments()[0];
+            for (Map.Entry<String, String> page : pages.entrySet()) {
+                if (page.getKey() != null && request.contains(page.getKey())) {
+                    return json(page.getValue());
+                }
+            }
+            return json(pages.get(null));
+        });
+        client = new NanoClient(httpClient);
+    }
+
+    @Test
+    public void testStreamsHistoryInPages() throws Exception {
+        history("{\"history\":[" + entry(5) + "," + entry(4) + "],\"previous\":\"" + hash(3) + "\"}", null);
+        history("{\"history\":[" + entry(3) + "," + entry(2) + "],\"previous\":\"" + hash(1) + "\"}", hash(3));
+        history("{\"history\":[" + entry(1) + "]}", hash(1));
+
+        try (Stream<History> history = client.streamAccountHistory(ACCOUNT, 2)) {
+            assertEquals(Arrays.asList(hash(5), hash(4), hash(3), hash(2), hash(1)),
+                history.map(History::getHash).collect(Collectors.toList()));
+        }
+        verify(httpClient, times(3)).postAsync(anyString());
+    }
+
+    @Test
+    public void testStopsEarly() throws Exception {
+        history("{\"history\":[" + entry(5) + "," + entry(4) + "],\"previous\":\"" + hash(3) + "\"}", null);
+        history("{\"history\":[" + entry(3) + "," + entry(2) + "],\"previous\":\"" + hash(1) + "\"}", hash(3));
+
+        try (Stream<History> history = client.streamAccountHistory(ACCOUNT, 2)) {
+            assertEquals(2, history.limit(2).count());
+        }
+        // the second page was prefetched, but nothing after it
+        verify(httpClient, times(2)).postAsync(anyString());
+        verify(httpClient, never()).postAsync(contains("\"head\":\"" + hash(1) + "\""));
+    }
+
+    @Test
+    public void testHistoryWithoutCursor() throws Exception {
+        history("{\"history\":[" + entry(5) + "," + entry(4) + "]}", null);
+        history("{\"history\":[" + entry(3) + "]}", hash(3));
+        when(httpClient.postAsync(contains("\"action\":\"chain\"")))
+            .thenAnswer(invocation -> json("{\"blocks\":[\"" + hash(4) + "\",\"" + hash(3) + "\"]}"));
+
+        try (Stream<History> history = client.streamAccountHistory(ACCOUNT, 2)) {
+            assertEquals(3, history.count());
+        }
+    }
+
+    @Test
+    public void testStreamsChainInSegments() throws Exception {
+        chain(6);
+
+        try (Stream<String> chain = client.streamChain(hash(6), 2)) {
+            assertEquals(Arrays.asList(hash(6), hash(5), hash(4), hash(3), hash(2), hash(1)),
+                chain.collect(Collectors.toList()));
+        }
+        // one block more than a segment is requested to find where the next one starts
+        verify(httpClient).postAsync(contains("\"block\":\"" + hash(4) + "\""));
+        verify(httpClient, times(3)).postAsync(anyString());
+    }
+
+    @Test
+    public void testChainStopsEarly() throws Exception {
+        chain(100);
+
+        try (Stream<String> chain = client.streamChain(hash(100), 10)) {
+            assertEquals(hash(96), chain.filter(hash -> hash.endsWith("60")).findFirst().get());
+        }
+        verify(httpClient, times(2)).postAsync(anyString());
+    }
+
+    @Test
+    public void testChainFromBlockCache() throws Exception {
+        chain(6);
+        client = NanoClient.builder().blockCache(BlockCache.builder().build()).build(httpClient);
+
+        assertEquals(6, client.streamChain(hash(6), 4).count());
+        assertEquals(6, client.streamChain(hash(6), 4).count());
+        assertEquals(3, client.streamChain(hash(3), 1).count());
+        verify(httpClient, times(2)).postAsync(anyString());
+    }
+
+    @Test
+    public void testLazyStart() {
+        int[] fetches = new int[1];
+        PrefetchingIterator<Integer> iterator = new PrefetchingIterator<>("a", cursor -> {
+            fetches[0]++;
+            List<Integer> items = "a".equals(cursor) ? Arrays.asList(1, 2) : Collections.singletonList(3);
+            return CompletableFuture.completedFuture(new PrefetchingIterator.Page<>(items, "a".equals(cursor) ? "b" : null));
+        });
+        assertEquals(0, fetches[0]);
+
+        assertTrue(iterator.hasNext());
+        assertEquals(2, fetches[0]);
+        iterator.close();
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testCloseCancelsPrefetch() {
+        CompletableFuture<PrefetchingIterator.Page<Integer>> second = new CompletableFuture<>();
+        PrefetchingIterator<Integer> iterator = new PrefetchingIterator<>(null, cursor -> cursor == null
+            ? CompletableFuture.completedFuture(new PrefetchingIterator.Page<>(Collections.singletonList(1), "next"))
+            : second);
+
+        assertEquals(Integer.valueOf(1), iterator.next());
+        iterator.close();
+        assertTrue(second.isCancelled());
+    }
+
+    @Test(expected = NanoException.class)
+    public void testFailure() throws Exception {
+        history("{\"error\":\"Bad account number\"}", null);
+        try (Stream<History> history = client.streamAccountHistory(ACCOUNT, 2)) {
+            history.count();
+        }
+    }
+
+    /**
+     * Answers chain requests for an account whose blocks are hash(length) down to hash(1).
+     */
+    private void chain(int length) throws Exception {
+        Pattern block = Pattern.compile("\"block\":\"([0-9A-F]{64})\"");
+        Pattern count = Pattern.compile("\"count\":(\\d+)");
+        when(httpClient.postAsync(contains("\"action\":\"chain\""))).thenAnswer(invocation -> {
+            String request = (String) invocation.getArguments()[0];
+            Matcher blockMatcher = block.matcher(request);
+            Matcher countMatcher = count.matcher(request);
+            assertTrue(blockMatcher.find() && countMatcher.find());
+            int start = Integer.parseInt(blockMatcher.group(1), 16);
+            int end = Math.max(1, start - Integer.parseInt(countMatcher.group(1)) + 1);
+            List<String> blocks = new ArrayList<>();
+            for (int i = start; i >= end && i <= length; i--) {
+                blocks.add("\"" + hash(i) + "\"");
+            }
+            return json("{\"blocks\":[" + String.join(",", blocks) + "]}");
+        });
+    }
+
+    private void history(String json, String head) {
+        pages.put(head, json);
+    }
+
+    private static String entry(int i) {
+        return "{\"type\":\"send\",\"account\":\"" + ACCOUNT + "\",\"amount\":\"1\",\"hash\":\"" + hash(i) + "\"}";
+    }
+
+    private static String hash(int i) {
+        return String.format("%064X", i);
+    }
+
+    private static CompletableFuture<ResponseBody> json(String json) {
+        return CompletableFuture.completedFuture(ResponseBody.create(MediaType.parse("application/json"), json));
+    }
+}
@@ -0,0 +1,100 @@
+package org.nano.client;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RawTest {
+
+    private static final BigInteger MAX = BigInteger.ONE.shiftLeft(128).subtract(BigInteger.ONE);
+
+    @Test
+    public void testParseAndFormat() throws Exception {
+        assertRoundTrip("0");
+        assertRoundTrip("1");
+        assertRoundTrip("9223372036854775807");
+        assertRoundTrip("9223372036854775808");
+        assertRoundTrip("18446744073709551616");
+        assertRoundTrip("325586539664609129644855132177");
+        assertRoundTrip("1000000000000000000000000000000000000");
+        assertRoundTrip(MAX.toString());
+    }
+
+    @Test
+    public void testMatchesBigInteger() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            BigInteger value = new BigInteger(1 + random.nextInt(128), random);
+            Raw raw = Raw.parse(value.toString());
+            assertEquals(value, raw.toBigInteger());
+            assertEquals(value.toString(), raw.toString());
+            assertEquals(raw, Raw.of(value));
+        }
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testParseOverflow() throws Exception {
+        Raw.parse(MAX.add(BigInteger.ONE).toString());
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testParseInvalid() throws Exception {
+        Raw.parse("12a");
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testParseNegative() throws Exception {
+        Raw.parse("-1");
+    }
+
+    @Test
+    public void testAddAndSubtract() throws Exception {
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            BigInteger a = new BigInteger(127, random);
+            BigInteger b = new BigInteger(127, random);
+            assertEquals(a.add(b), Raw.of(a).add(Raw.of(b)).toBigInteger());
+            BigInteger max = a.max(b);
+            BigInteger min = a.min(b);
+            assertEquals(max.subtract(min), Raw.of(max).subtract(Raw.of(min)).toBigInteger());
+        }
+        assertEquals(Raw.parse("18446744073709551616"), Raw.parse("18446744073709551615").add(Raw.of(1)));
+        assertEquals(Raw.parse("18446744073709551615"), Raw.parse("18446744073709551616").subtract(Raw.of(1)));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testAddOverflow() throws Exception {
+        Raw.MAX.add(Raw.of(1));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testSubtractUnderflow() throws Exception {
+        Raw.of(1).subtract(Raw.of(2));
+    }
+
+    @Test
+    public void testCompare() throws Exception {
+        assertTrue(Raw.parse("18446744073709551616").compareTo(Raw.parse("18446744073709551615")) > 0);
+        assertTrue(Raw.parse("9223372036854775808").compareTo(Raw.of(Long.MAX_VALUE)) > 0);
+        assertTrue(Raw.ZERO.compareTo(Raw.MAX) < 0);
+        assertEquals(0, Raw.parse("42").compareTo(Raw.of(42)));
+    }
+
+    @Test
+    public void testLazyResponseAmount() throws Exception {
+        Balance balance = new Balance();
+        balance.setBalance("325586539664609129644855132177");
+        assertEquals(Raw.parse("325586539664609129644855132177"), balance.getBalanceRaw());
+        balance.setBalance("1");
+        assertEquals(Raw.of(1), balance.getBalanceRaw());
+    }
+
+    private static void assertRoundTrip(String value) {
+        assertEquals(value, Raw.parse(value).toString());
+        assertEquals(new BigInteger(value), Raw.parse(value).toBigInteger());
+    }
+}
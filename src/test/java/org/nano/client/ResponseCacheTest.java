@@ -0,0 +1,183 @@
+package org.nano.client;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ResponseCacheTest {
+
+    private static final String ACCOUNT = "xrb_3t6k35gi95xu6tergt6p69ck76ogmitsa8mnijtpxm9fkcm736xtoncuohr3";
+    private static final String OTHER_ACCOUNT = "xrb_3i1aq1cchnmbn9x5rsbap8b15akfh7wj7pwskuzi7ahz8oq6cobd99d4r3b7";
+
+    private final AtomicLong now = new AtomicLong();
+    private HttpClient httpClient;
+    private ResponseCache cache;
+    private NanoClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        httpClient = mock(HttpClient.class);
+        when(httpClient.post(contains("account_weight"))).thenAnswer(invocation -> loadJson("account_weight"));
+        when(httpClient.post(contains("block_count"))).thenAnswer(invocation -> loadJson("block_count"));
+        when(httpClient.post(contains("account_info"))).thenAnswer(invocation -> loadJson("account_info"));
+        cache = ResponseCache.builder()
+            .cache("account_weight", 10, TimeUnit.SECONDS, 1)
+            .cache("block_count", 1, TimeUnit.SECONDS, 10)
+            .ticker(now::get)
+            .build();
+        client = NanoClient.builder().responseCache(cache).build(httpClient);
+    }
+
+    @Test
+    public void testCachesUntilExpiry() throws Exception {
+        BlockCount first = client.getBlockCount();
+        assertSame(first, client.getBlockCount());
+        verify(httpClient, times(1)).post(anyString());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertNotSame(first, client.getBlockCount());
+        verify(httpClient, times(2)).post(anyString());
+
+        ResponseCache.Stats stats = cache.stats().get("block_count");
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(1, stats.getExpirations());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    public void testKeyedByParameters() throws Exception {
+        client.getAccountWeight(ACCOUNT);
+        client.getAccountWeight(ACCOUNT);
+        client.getAccountWeight(OTHER_ACCOUNT);
+        client.getAccountWeight(ACCOUNT);
+        verify(httpClient, times(3)).post(anyString());
+
+        // the single entry allowed for account_weight was replaced twice
+        ResponseCache.Stats stats = cache.stats().get("account_weight");
+        assertEquals(2, stats.getEvictions());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    public void testUncachedActions() throws Exception {
+        client.getAccountInformation(ACCOUNT);
+        client.getAccountInformation(ACCOUNT);
+        verify(httpClient, times(2)).post(anyString());
+    }
+
+    @Test
+    public void testAsync() throws Exception {
+        AsyncNanoClient async = new AsyncNanoClient(client);
+        when(httpClient.postAsync(contains("block_count")))
+            .thenAnswer(invocation -> CompletableFuture.completedFuture(loadJson("block_count")));
+
+        BlockCount first = async.getBlockCount().get();
+        assertSame(first, async.getBlockCount().get());
+        assertSame(first, client.getBlockCount());
+        verify(httpClient, times(1)).postAsync(anyString());
+        verify(httpClient, times(0)).post(anyString());
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        client.getBlockCount();
+        cache.invalidate("block_count");
+        client.getBlockCount();
+        cache.invalidateAll();
+        client.getBlockCount();
+        verify(httpClient, times(3)).post(anyString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWritesCannotBeCached() throws Exception {
+        ResponseCache.builder().cache("send", 1, TimeUnit.SECONDS, 1);
+    }
+
+    @Test
+    public void testCachesUntilFrontierMoves() throws Exception {
+        AtomicReference<String> frontier = frontierCache();
+        when(httpClient.post(contains("account_block_count"))).thenAnswer(invocation -> loadJson("account_block_count"));
+
+        assertEquals(Collections.emptyList(), cache.validate(client, Arrays.asList(ACCOUNT, OTHER_ACCOUNT)));
+        client.getAccountBlockCount(ACCOUNT);
+        client.getAccountBlockCount(OTHER_ACCOUNT);
+        client.getAccountBlockCount(ACCOUNT);
+        verify(httpClient, times(2)).post(contains("account_block_count"));
+
+        // nothing moved, so everything is still served from the cache
+        assertEquals(Collections.emptyList(), cache.validate(client));
+        client.getAccountBlockCount(ACCOUNT);
+        verify(httpClient, times(2)).post(contains("account_block_count"));
+
+        frontier.set("ECCB8CB65CD3106EDA8CE9AA893FEAD497A91BCA903890CBD7A5C59F06AB9113");
+        assertEquals(Collections.singletonList(ACCOUNT), cache.validate(client));
+        client.getAccountBlockCount(ACCOUNT);
+        client.getAccountBlockCount(OTHER_ACCOUNT);
+        verify(httpClient, times(3)).post(contains("account_block_count"));
+        verify(httpClient, times(3)).post(contains("accounts_frontiers"));
+        assertEquals(1, cache.stats().get("account_block_count").getExpirations());
+    }
+
+    @Test
+    public void testUncheckedFrontiers() throws Exception {
+        AtomicReference<String> frontier = frontierCache();
+        when(httpClient.post(contains("account_block_count"))).thenAnswer(invocation -> loadJson("account_block_count"));
+
+        // fetched before the frontier was known, so discarded by the first check
+        client.getAccountBlockCount(ACCOUNT);
+        // account_info carries its own frontier, so it is kept while that is current
+        frontier.set("ECCB8CB65CD3106EDA8CE9AA893FEAD497A91BCA903890CBD7A5C59F06AB9113");
+        client.getAccountInformation(ACCOUNT);
+        cache.validate(client);
+
+        client.getAccountBlockCount(ACCOUNT);
+        client.getAccountInformation(ACCOUNT);
+        verify(httpClient, times(2)).post(contains("account_block_count"));
+        verify(httpClient, times(1)).post(contains("account_info"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFrontierCacheRequiresAccountAction() throws Exception {
+        ResponseCache.builder().cacheUntilFrontierMoves("representatives", 1);
+    }
+
+    private AtomicReference<String> frontierCache() throws Exception {
+        AtomicReference<String> frontier = new AtomicReference<>("791AF413173EEE674A6FCF633B5DFC0F3C33F397F0DA08E987D9E0741D40D81A");
+        when(httpClient.post(contains("accounts_frontiers"))).thenAnswer(invocation -> ResponseBody.create(
+            MediaType.parse("application/json"), "{\"frontiers\":{\"" + ACCOUNT + "\":\"" + frontier.get() + "\",\""
+                + OTHER_ACCOUNT + "\":\"6A32397F4E95AF025DE29D9BF1ACE864D5404362258E06489FABDBA9DCCC046F\"}}"));
+        cache = ResponseCache.builder()
+            .cacheUntilFrontierMoves("account_block_count", 10)
+            .cacheUntilFrontierMoves("account_info", 10)
+            .build();
+        client = NanoClient.builder().responseCache(cache).build(httpClient);
+        return frontier;
+    }
+
+    private ResponseBody loadJson(String name) {
+        String filename = "json/" + name + ".json";
+        InputStream stream = this.getClass().getClassLoader().getResourceAsStream(filename);
+        return ResponseBody.create(MediaType.parse("application/json"), new Scanner(stream).useDelimiter("\\A").next());
+    }
+}
@@ -0,0 +1,124 @@
+package org.nano.client;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RetryPolicyTest {
+
+    private HttpClient httpClient;
+    private NodePool nodes;
+    private ResponseBody body;
+
+    @Before
+    public void setUp() throws Exception {
+        httpClient = mock(HttpClient.class);
+        nodes = new NodePool(Collections.singletonList(httpClient), false);
+        body = ResponseBody.create(MediaType.parse("application/json"), "{}");
+    }
+
+    @Test
+    public void testRetriesReadAfterIOException() throws Exception {
+        RetryPolicy policy = RetryPolicy.builder().backoff(1, 1, TimeUnit.MILLISECONDS).build();
+        when(httpClient.post(anyString())).thenThrow(new SocketTimeoutException()).thenReturn(body);
+
+        assertSame(body, policy.post(read(), "{}", nodes));
+        verify(httpClient, times(2)).post(anyString());
+    }
+
+    @Test
+    public void testGivesUpAfterMaxAttempts() throws Exception {
+        RetryPolicy policy = RetryPolicy.builder().maxAttempts(3).backoff(1, 1, TimeUnit.MILLISECONDS).build();
+        when(httpClient.post(anyString())).thenThrow(new SocketTimeoutException());
+
+        try {
+            policy.post(read(), "{}", nodes);
+            fail();
+        } catch (SocketTimeoutException expected) {
+        }
+        verify(httpClient, times(3)).post(anyString());
+    }
+
+    @Test
+    public void testNeverAppliesToValueMovingActions() throws Exception {
+        RetryPolicy policy = RetryPolicy.builder().build();
+
+        assertTrue(policy.appliesTo(read()));
+        assertFalse(policy.appliesTo(Request.action("send").build()));
+        assertFalse(policy.appliesTo(Request.action("receive").build()));
+        assertFalse(policy.appliesTo(Request.action("account_move").build()));
+    }
+
+    @Test
+    public void testAsyncRetriesReadAfterIOException() throws Exception {
+        RetryPolicy policy = RetryPolicy.builder().backoff(1, 1, TimeUnit.MILLISECONDS).build();
+        CompletableFuture<ResponseBody> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IOException());
+        when(httpClient.postAsync(anyString())).thenReturn(failed).thenReturn(CompletableFuture.completedFuture(body));
+
+        assertSame(body, policy.postAsync(read(), "{}", nodes).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testHedgesSlowRequest() throws Exception {
+        RetryPolicy policy = RetryPolicy.builder()
+            .hedgeAfterPercentile(95)
+            .minHedgeDelay(1, TimeUnit.MILLISECONDS)
+            .build();
+        for (int i = 0; i < 100; i++) {
+            policy.recordLatency("block_count", TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        CompletableFuture<ResponseBody> slow = new CompletableFuture<>();
+        when(httpClient.postAsync(anyString())).thenReturn(slow).thenReturn(CompletableFuture.completedFuture(body));
+
+        assertSame(body, policy.postAsync(read(), "{}", nodes).get(5, TimeUnit.SECONDS));
+        verify(httpClient, times(2)).postAsync(anyString());
+    }
+
+    @Test
+    public void testRetryDoesNotExceedMaxAttemptsAfterHedge() throws Exception {
+        RetryPolicy policy = RetryPolicy.builder()
+            .maxAttempts(2)
+            .backoff(50, 50, TimeUnit.MILLISECONDS)
+            .hedgeAfterPercentile(95)
+            .minHedgeDelay(1, TimeUnit.MILLISECONDS)
+            .build();
+        for (int i = 0; i < 100; i++) {
+            policy.recordLatency("block_count", TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        CompletableFuture<ResponseBody> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IOException());
+        CompletableFuture<ResponseBody> slow = new CompletableFuture<>();
+        when(httpClient.postAsync(anyString())).thenReturn(failed).thenReturn(slow);
+
+        CompletableFuture<ResponseBody> result = policy.postAsync(read(), "{}", nodes);
+        // The hedge takes the second attempt before the retry's backoff ends.
+        Thread.sleep(200);
+        verify(httpClient, times(2)).postAsync(anyString());
+        assertFalse(result.isDone());
+
+        slow.complete(body);
+        assertSame(body, result.get(5, TimeUnit.SECONDS));
+    }
+
+    private static Request read() {
+        return Request.action("block_count").build();
+    }
+}
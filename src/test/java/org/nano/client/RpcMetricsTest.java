@@ -0,0 +1,81 @@
+package org.nano.client;
+
+import com.google.gson.JsonSyntaxException;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RpcMetricsTest {
+
+    @Test
+    public void testRecordsRequestsAndErrors() throws Exception {
+        RpcMetrics metrics = new RpcMetrics();
+
+        metrics.rpcStarted("account_balance");
+        metrics.rpcStarted("account_balance");
+        metrics.rpcStarted("account_balance");
+        metrics.rpcCompleted("account_balance", 100, 200, 1_000_000, null);
+        metrics.rpcCompleted("account_balance", 100, -1, 2_000_000, new NanoException("Bad account number"));
+
+        RpcMetrics.ActionSnapshot snapshot = metrics.snapshot().get("account_balance");
+        assertEquals(2, snapshot.getRequests());
+        assertEquals(1, snapshot.getInFlight());
+        assertEquals(200, snapshot.getRequestBytes());
+        assertEquals(200, snapshot.getResponseBytes());
+        assertEquals(1, snapshot.getErrors());
+        assertEquals(1, snapshot.getErrors(RpcMetrics.ErrorType.NODE));
+    }
+
+    @Test
+    public void testClassifiesErrors() throws Exception {
+        assertEquals(RpcMetrics.ErrorType.NODE, RpcMetrics.errorType(new NanoException("Wallet not found")));
+        assertEquals(RpcMetrics.ErrorType.COMMUNICATION, RpcMetrics.errorType(new NanoException("", new IOException())));
+        assertEquals(RpcMetrics.ErrorType.PARSE, RpcMetrics.errorType(new NanoException("", new JsonSyntaxException(""))));
+    }
+
+    @Test
+    public void testEmptyResponseIsParseError() throws Exception {
+        HttpClient httpClient = mock(HttpClient.class);
+        when(httpClient.post(anyString())).thenReturn(ResponseBody.create(MediaType.parse("application/json"), ""));
+        RpcMetrics metrics = new RpcMetrics();
+        NanoClient client = NanoClient.builder().metrics(metrics).build(httpClient);
+
+        try {
+            client.getBlockCount();
+            fail();
+        } catch (NanoException e) {
+            assertEquals("Empty response from node", e.getMessage());
+        }
+        assertEquals(1, metrics.snapshot().get("block_count").getErrors(RpcMetrics.ErrorType.PARSE));
+    }
+
+    @Test
+    public void testPercentiles() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertWithin(500_000, histogram.percentile(50));
+        assertWithin(990_000, histogram.percentile(99));
+        assertWithin(999_000, histogram.percentile(99.9));
+    }
+
+    @Test
+    public void testPercentileOfEmptyHistogram() throws Exception {
+        assertEquals(0, new LatencyHistogram().percentile(99));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected ~" + expected + " but was " + actual, Math.abs(actual - expected) <= expected * 0.07);
+    }
+}
@@ -0,0 +1,123 @@
+package org.nano.client;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StateBlockTest {
+
+    private static final String PRIVATE_KEY = "781186FB9EF17DB6E3D1056550D9FAE5D5BBADA6A6BC370E4CBB938B1DC71DA3";
+    private static final String PUBLIC_KEY = "3068BB1CA04525BB0E416C485FE6A67FD52540227D267CC8B6E8DA958A7FA039";
+    private static final String ACCOUNT = "xrb_1e5aqegc1jb7qe964u4adzmcezyo6o146zb8hm6dft8tkp79za3sxwjym5rx";
+    private static final String PREVIOUS = "FC5A7FB777110A858052468D448B2DF22B648943C097C0608D1E2341007438B0";
+    private static final String LINK = "B2EC73C1F503F47E051AD72ECB512C63BA8E1A0ACC2CEE4EA9A22FE1CBDB693F";
+    private static final String HASH = "790308E941AFE131682876A9D828C614D31B6BFB548493B63DADF52FEE171E5D";
+    private static final String SIGNATURE = "C1F316DE396DAB4A5B0CCC6485B0E64EAADD28361CD69454EE1D6D752C549BB0"
+        + "71522B0CB7057BAC9E8E430E85CA80CC6C54A910B762AEAEB20A356A1AEC4D05";
+
+    @Test
+    public void testSignerDerivesAccount() throws Exception {
+        Signer signer = new Signer(PRIVATE_KEY);
+        assertEquals(PUBLIC_KEY, signer.getPublicKey());
+        assertEquals(ACCOUNT, signer.getAccount());
+    }
+
+    @Test
+    public void testHash() throws Exception {
+        StateBlock block = block().build();
+        assertEquals(HASH, block.getHash());
+        assertEquals(PREVIOUS, block.getRoot());
+        assertEquals(AddressCodec.encode(LINK), block.getLinkAsAccount());
+        assertNull(block.getSignature());
+    }
+
+    @Test
+    public void testSign() throws Exception {
+        StateBlock block = new Signer(PRIVATE_KEY).sign(block().build());
+        assertEquals(SIGNATURE, block.getSignature());
+        assertTrue(block.isSignatureValid());
+    }
+
+    @Test
+    public void testTamperedSignatureIsInvalid() throws Exception {
+        StateBlock block = new Signer(PRIVATE_KEY).sign(block().build());
+        String tampered = block.getSignature().substring(0, 127) + "6";
+        assertFalse(block.withSignature(tampered).isSignatureValid());
+        assertFalse(block().balance("5000000000000000000000000000002").build().withSignature(SIGNATURE).isSignatureValid());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSignerRejectsOtherAccounts() throws Exception {
+        Signer other = new Signer("0000000000000000000000000000000000000000000000000000000000000001");
+        other.sign(block().build());
+    }
+
+    @Test
+    public void testLinkAsAccount() throws Exception {
+        StateBlock block = block().link(AddressCodec.encode(LINK)).build();
+        assertEquals(LINK, block.getLink());
+        assertEquals(HASH, block.getHash());
+    }
+
+    @Test
+    public void testOpenBlockRoot() throws Exception {
+        StateBlock block = StateBlock.builder()
+            .account(ACCOUNT)
+            .representative(ACCOUNT)
+            .balance(Raw.of(1))
+            .link(LINK)
+            .build();
+        assertEquals("0000000000000000000000000000000000000000000000000000000000000000", block.getPrevious());
+        assertEquals(PUBLIC_KEY, block.getRoot());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMissingFields() throws Exception {
+        StateBlock.builder().account(ACCOUNT).build();
+    }
+
+    @Test
+    public void testProcess() throws Exception {
+        HttpClient httpClient = mock(HttpClient.class);
+        when(httpClient.post(anyString())).thenReturn(ResponseBody.create(MediaType.parse("application/json"),
+            "{\"hash\": \"" + HASH + "\"}"));
+        NanoClient client = new NanoClient(httpClient);
+        StateBlock block = new Signer(PRIVATE_KEY).sign(block().build()).withWork("2bf29ef00786a6bc");
+
+        assertEquals(HASH, client.process(block).getHash());
+
+        ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+        verify(httpClient).post(json.capture());
+        JsonObject request = new JsonParser().parse(json.getValue()).getAsJsonObject();
+        assertEquals("process", request.get("action").getAsString());
+        JsonObject sent = new JsonParser().parse(request.get("block").getAsString()).getAsJsonObject();
+        assertEquals("state", sent.get("type").getAsString());
+        assertEquals(ACCOUNT, sent.get("account").getAsString());
+        assertEquals("5000000000000000000000000000001", sent.get("balance").getAsString());
+        assertEquals(AddressCodec.encode(LINK), sent.get("link_as_account").getAsString());
+        assertEquals(SIGNATURE, sent.get("signature").getAsString());
+        assertEquals("2bf29ef00786a6bc", sent.get("work").getAsString());
+        assertFalse(sent.has("hash"));
+    }
+
+    private static StateBlock.Builder block() {
+        return StateBlock.builder()
+            .account(ACCOUNT)
+            .previous(PREVIOUS)
+            .representative(ACCOUNT)
+            .balance("5000000000000000000000000000001")
+            .link(LINK);
+    }
+}
@@ -0,0 +1,131 @@
+package org.nano.client;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WorkGeneratorTest {
+
+    private static final String ROOT = "718CC2121C3E641059BC1C2CFC45666C99E8AE922F7A807B7D07B62C995D79E2";
+    private static final long EASY_THRESHOLD = 0xfff0000000000000L;
+    private static final long IMPOSSIBLE_THRESHOLD = -1L;
+
+    private WorkGenerator generator;
+
+    @Before
+    public void setUp() throws Exception {
+        generator = new WorkGenerator(2, EASY_THRESHOLD);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        generator.close();
+    }
+
+    @Test
+    public void testKnownWork() throws Exception {
+        assertEquals(0xffffffd21c3933f4L, WorkValidator.value("2bf29ef00786a6bc", ROOT));
+        assertTrue(WorkValidator.isValid("2bf29ef00786a6bc", ROOT));
+        assertFalse(WorkValidator.isValid("2bf29ef00786a6bc", ROOT, 0xffffffe000000000L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNonAsciiWork() throws Exception {
+        // A full-width digit, which Character.digit accepts.
+        WorkValidator.value("2bf29ef00786a6b\uff10", ROOT);
+    }
+
+    @Test
+    public void testGenerate() throws Exception {
+        WorkGenerator.Task task = generator.generate(ROOT);
+        String work = task.get(10, TimeUnit.SECONDS);
+
+        assertEquals(16, work.length());
+        assertTrue(WorkValidator.isValid(work, ROOT, EASY_THRESHOLD));
+        assertTrue(task.getHashes() > 0);
+        assertTrue(generator.getHashes() >= task.getHashes());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        WorkGenerator.Task task = generator.generate(ROOT, IMPOSSIBLE_THRESHOLD);
+        Thread.sleep(50);
+        task.cancel(true);
+
+        try {
+            task.join();
+            fail();
+        } catch (CancellationException e) {
+            // expected
+        }
+        waitForIdle();
+        long hashes = generator.getHashes();
+        Thread.sleep(50);
+        assertEquals(hashes, generator.getHashes());
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        generator.close();
+        generator = new WorkGenerator(1, IMPOSSIBLE_THRESHOLD);
+        WorkGenerator.Task task = generator.generate(ROOT, 50, TimeUnit.MILLISECONDS);
+
+        try {
+            task.get(10, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        assertTrue(task.getHashes() > 0);
+        assertTrue(task.getProgress() > 0);
+        assertTrue(task.getHashRate() > 0);
+        waitForIdle();
+        assertTrue(generator.getHashRate() > 0);
+    }
+
+    @Test
+    public void testQueuedTasksRunInOrder() throws Exception {
+        WorkGenerator.Task first = generator.generate(ROOT, IMPOSSIBLE_THRESHOLD);
+        WorkGenerator.Task second = generator.generate(ROOT);
+        assertEquals(2, generator.getPendingTasks());
+
+        Thread.sleep(20);
+        assertEquals(0, second.getHashes());
+        first.cancel(true);
+        second.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        WorkGenerator.Task task = generator.generate(ROOT, IMPOSSIBLE_THRESHOLD);
+        generator.close();
+        assertTrue(task.isCancelled());
+
+        try {
+            generator.generate(ROOT).join();
+            fail();
+        } catch (Exception e) {
+            assertTrue(e.getCause() instanceof NanoException);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRoot() throws Exception {
+        generator.generate("ABC");
+    }
+
+    private void waitForIdle() throws InterruptedException {
+        // Workers notice cancellation at their next check.
+        Thread.sleep(100);
+    }
+}
@@ -0,0 +1,188 @@
+package org.nano.client;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.contains;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WorkPrecacheTest {
+
+    private static final String ACCOUNT = "xrb_3t6k35gi95xu6tergt6p69ck76ogmitsa8mnijtpxm9fkcm736xtoncuohr3";
+    private static final String FRONTIER = "791AF413173EEE674A6FCF633B5DFC0F3C33F397F0DA08E987D9E0741D40D81A";
+    private static final String UNOPENED_ACCOUNT = "xrb_1111111111111111111111111111111111111111111111111111hifc8npp";
+    private static final String UNOPENED_KEY = "0000000000000000000000000000000000000000000000000000000000000000";
+    private static final String DESTINATION = "xrb_3i1aq1cchnmbn9x5rsbap8b15akfh7wj7pwskuzi7ahz8oq6cobd99d4r3b7";
+    private static final String SEND_BLOCK = "000D1BAEC8EC208142C99059B393051BAC8380F9B5A2E6B2489A277D81789F3F";
+    private static final String WALLET = "000D1BAEC8EC208142C99059B393051BAC8380F9B5A2E6B2489A277D81789F3F";
+    private static final long THRESHOLD = 0xff00000000000000L;
+
+    private HttpClient httpClient;
+    private WorkGenerator generator;
+    private WorkPrecache precache;
+    private NanoClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        httpClient = mock(HttpClient.class);
+        when(httpClient.post(contains("accounts_frontiers"))).thenAnswer(invocation -> loadJson("accounts_frontiers"));
+        when(httpClient.post(contains("\"send\""))).thenAnswer(invocation -> loadJson("send"));
+        generator = new WorkGenerator(1, THRESHOLD);
+        precache = WorkPrecache.builder()
+            .accounts(Arrays.asList(ACCOUNT, UNOPENED_ACCOUNT))
+            .generator(generator)
+            .refreshInterval(1, TimeUnit.HOURS)
+            .build();
+        client = NanoClient.builder().workPrecache(precache).build(httpClient);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        precache.close();
+        generator.close();
+    }
+
+    @Test
+    public void testPrecachesFrontiersAndOpenBlocks() throws Exception {
+        await(() -> precache.size() == 2);
+
+        String work = precache.take(ACCOUNT);
+        assertTrue(WorkValidator.isValid(work, FRONTIER, THRESHOLD));
+        assertTrue(WorkValidator.isValid(precache.take(UNOPENED_ACCOUNT), UNOPENED_KEY, THRESHOLD));
+        assertNull(precache.take(DESTINATION));
+        assertEquals(2, precache.getHits());
+        assertEquals(1, precache.getMisses());
+    }
+
+    @Test
+    public void testFailedSendKeepsPrecachedWork() throws Exception {
+        await(() -> precache.size() == 2);
+        String work = precache.take(ACCOUNT);
+        when(httpClient.post(contains("\"send\""))).thenAnswer(invocation -> errorJson("Insufficient balance"));
+
+        try {
+            client.send(WALLET, ACCOUNT, DESTINATION, "1");
+            fail("Expected a NanoException");
+        } catch (NanoException e) {
+            assertEquals("Insufficient balance", e.getMessage());
+        }
+        assertEquals(work, precache.take(ACCOUNT));
+    }
+
+    @Test
+    public void testRefreshRegeneratesRejectedWork() throws Exception {
+        await(() -> precache.size() == 2);
+        when(httpClient.post(contains("\"send\""))).thenAnswer(invocation -> errorJson("Invalid work"));
+
+        try {
+            client.send(WALLET, ACCOUNT, DESTINATION, "1");
+            fail("Expected a NanoException");
+        } catch (NanoException e) {
+            assertEquals("Invalid work", e.getMessage());
+        }
+        assertNull(precache.take(ACCOUNT));
+
+        precache.refresh();
+        await(() -> precache.size() == 2);
+        assertTrue(WorkValidator.isValid(precache.take(ACCOUNT), FRONTIER, THRESHOLD));
+    }
+
+    @Test
+    public void testSendUsesPrecachedWork() throws Exception {
+        await(() -> precache.size() == 2);
+
+        client.send(WALLET, ACCOUNT, DESTINATION, "1");
+
+        String work = lastRequest().replaceAll(".*\"work\":\"([0-9a-f]+)\".*", "$1");
+        assertTrue(WorkValidator.isValid(work, FRONTIER, THRESHOLD));
+
+        // The send block is the new frontier, so work for it follows.
+        await(() -> precache.size() == 2);
+        assertTrue(WorkValidator.isValid(precache.take(ACCOUNT), SEND_BLOCK, THRESHOLD));
+    }
+
+    @Test
+    public void testSendRetriesStalePrecachedWork() throws Exception {
+        await(() -> precache.size() == 2);
+        when(httpClient.post(contains("\"send\""))).thenAnswer(invocation -> errorJson("Invalid work"))
+            .thenAnswer(invocation -> loadJson("send"));
+
+        assertEquals(SEND_BLOCK, client.send(WALLET, ACCOUNT, DESTINATION, "1").getBlock());
+
+        verify(httpClient, times(2)).post(contains("\"send\""));
+        assertFalse(lastRequest().contains("work"));
+    }
+
+    @Test
+    public void testSendDoesNotRetryOtherErrors() throws Exception {
+        await(() -> precache.size() == 2);
+        when(httpClient.post(contains("\"send\""))).thenAnswer(invocation -> errorJson("Account not found"));
+
+        try {
+            client.send(WALLET, ACCOUNT, DESTINATION, "1");
+            fail("Expected a NanoException");
+        } catch (NanoException e) {
+            assertEquals("Account not found", e.getMessage());
+        }
+        verify(httpClient, times(1)).post(contains("\"send\""));
+    }
+
+    @Test
+    public void testSendWithoutPrecache() throws Exception {
+        httpClient = mock(HttpClient.class);
+        when(httpClient.post(contains("\"send\""))).thenAnswer(invocation -> loadJson("send"));
+        NanoClient plain = new NanoClient(httpClient);
+        plain.send(WALLET, ACCOUNT, DESTINATION, "1");
+        assertFalse(lastRequest().contains("work"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPrecacheCannotBeShared() throws Exception {
+        NanoClient.builder().workPrecache(precache).build(httpClient);
+    }
+
+    private String lastRequest() throws Exception {
+        ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+        verify(httpClient, atLeastOnce()).post(json.capture());
+        return json.getValue();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Timed out waiting for condition");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private static ResponseBody errorJson(String error) {
+        return ResponseBody.create(MediaType.parse("application/json"), "{\"error\":\"" + error + "\"}");
+    }
+
+    private ResponseBody loadJson(String name) {
+        String filename = "json/" + name + ".json";
+        InputStream stream = this.getClass().getClassLoader().getResourceAsStream(filename);
+        return ResponseBody.create(MediaType.parse("application/json"), new Scanner(stream).useDelimiter("\\A").next());
+    }
+}